@@ -6,14 +6,20 @@ import dev.aoc.common.SolutionParser;
 import dev.aoc.common.SolutionSolver;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day04 extends Day {
@@ -46,16 +52,45 @@ public class Day04 extends Day {
         // long[] points = Arrays.stream(wins).mapToLong(w -> (long)Math.pow(2, w - 1)).toArray();
         // System.out.printf("Stats: avg points %f%n", (double)Arrays.stream(points).sum() / wins.length);
         maxWins = Arrays.stream(wins).max().getAsInt();
-        result = Arrays.stream(wins).mapToLong(w -> (long)Math.pow(2, w - 1)).sum();
+        result = sumPoints();
         return result;
     }
 
+    private long sumPoints() {
+        return Arrays.stream(wins).mapToLong(w -> (long)Math.pow(2, w - 1)).sum();
+    }
+
+    @SolutionParser(partNumber = 1, solutionName = "bitset")
+    public void parsePart1_Bitset() {
+        try (InputStream inputStream = inputByteStream()) {
+            wins = ScratchcardEvaluator.evaluate(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        maxWins = Arrays.stream(wins).max().orElse(0);
+    }
+
+    @SolutionSolver(partNumber = 1, solutionName = "bitset")
+    public Object solvePart1_Bitset() {
+        return sumPoints();
+    }
+
     @SolutionParser(partNumber = 2)
     public void parsePart2() {
         parsePart1();
         solvePart1();
     }
 
+    @SolutionParser(partNumber = 2, solutionName = "bitset")
+    public void parsePart2_Bitset() {
+        parsePart1_Bitset();
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "bitset")
+    public Object solvePart2_Bitset() {
+        return solvePart2();
+    }
+
     @SolutionSolver(partNumber = 2)
     public Object solvePart2() {
         // return part2Long();
@@ -136,6 +171,68 @@ public class Day04 extends Day {
         }
     }
 
+    /**
+     * Streaming evaluator: parses numbers straight from input bytes into two 128-bit bitsets (winning and having, as pairs of longs),
+     * win count of the card is popcount of their intersection. No strings, no sets, no list of cards, only win counts are kept.
+     */
+    private static class ScratchcardEvaluator {
+        private enum Section { HEADER, WINNING, HAVING }
+
+        public static int[] evaluate(InputStream inputStream) throws IOException {
+            int[] wins = new int[1024];
+            int cards = 0;
+            long winning0 = 0, winning1 = 0, having0 = 0, having1 = 0;
+            Section section = Section.HEADER;
+            int number = -1; // -1 if not inside a number
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            boolean eof = false;
+            while (!eof) {
+                read = inputStream.read(buffer);
+                if (read < 0) {
+                    eof = true;
+                    read = 1;
+                    buffer[0] = '\n'; // finish last card without newline
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b >= '0' && b <= '9') {
+                        number = (number < 0 ? 0 : number * 10) + (b - '0');
+                        continue;
+                    }
+                    if (number >= 0 && section != Section.HEADER) {
+                        if (number >= 128) {
+                            throw new IllegalArgumentException("number %d out of range at card %d".formatted(number, cards + 1));
+                        }
+                        if (section == Section.WINNING) {
+                            if (number < 64) winning0 |= 1L << number; else winning1 |= 1L << number;
+                        } else {
+                            if (number < 64) having0 |= 1L << number; else having1 |= 1L << number;
+                        }
+                    }
+                    number = -1;
+                    if (b == ':') {
+                        section = Section.WINNING;
+                    } else if (b == '|') {
+                        section = Section.HAVING;
+                    } else if (b == '\n') {
+                        if (section == Section.HAVING) {
+                            if (cards == wins.length) {
+                                wins = Arrays.copyOf(wins, wins.length * 2);
+                            }
+                            wins[cards++] = Long.bitCount(winning0 & having0) + Long.bitCount(winning1 & having1);
+                        } else if (section != Section.HEADER) {
+                            throw new IllegalArgumentException("incomplete card %d".formatted(cards + 1));
+                        }
+                        winning0 = winning1 = having0 = having1 = 0;
+                        section = Section.HEADER;
+                    }
+                }
+            }
+            return Arrays.copyOf(wins, cards);
+        }
+    }
+
     private List<Scratchcard> inputParse(List<String> lines) {
         List<Scratchcard> cards = new ArrayList<>();
         for (var line : lines) {
@@ -209,6 +306,53 @@ public class Day04 extends Day {
             day.parsePart2();
             assertEquals(5923918L, day.solvePart2());
         }
+
+        @Test
+        void solvePart1_Bitset_sample() {
+            var day = new Day04("_sample");
+            day.parsePart1_Bitset();
+            assertEquals(13L, day.solvePart1_Bitset());
+        }
+
+        @Test
+        void solvePart1_Bitset_main() {
+            var day = new Day04("");
+            day.parsePart1_Bitset();
+            assertEquals(23441L, day.solvePart1_Bitset());
+        }
+
+        @Test
+        void solvePart2_Bitset_sample() {
+            var day = new Day04("_sample");
+            day.parsePart2_Bitset();
+            assertEquals(30L, day.solvePart2_Bitset());
+        }
+
+        @Test
+        void solvePart2_Bitset_main() {
+            var day = new Day04("");
+            day.parsePart2_Bitset();
+            assertEquals(5923918L, day.solvePart2_Bitset());
+        }
+
+        @Test
+        void evaluate_Bitset_synthetic() throws IOException {
+            // synthetic deck, numbers up to 127, compared with set intersection of parsed scratchcards
+            Random random = new Random(4);
+            StringBuilder deck = new StringBuilder();
+            for (int card = 1; card <= 10_000; card++) {
+                deck.append("Card %6d:".formatted(card));
+                random.ints(10, 0, 128).forEach(n -> deck.append(" %d".formatted(n)));
+                deck.append(" |");
+                random.ints(25, 0, 128).forEach(n -> deck.append(" %d".formatted(n)));
+                deck.append(card % 2 == 0 ? "\r\n" : "\n");
+            }
+            int[] expected = deck.toString().lines().map(String::trim).map(Scratchcard::parse)
+                    .mapToInt(c -> Sets.intersection(c.winning, c.having).size())
+                    .toArray();
+            int[] wins = ScratchcardEvaluator.evaluate(new ByteArrayInputStream(deck.toString().getBytes(StandardCharsets.US_ASCII)));
+            assertArrayEquals(expected, wins);
+        }
     }
 }
 /*
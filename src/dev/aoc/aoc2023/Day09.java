@@ -1,16 +1,15 @@
 package dev.aoc.aoc2023;
 
 import dev.aoc.common.Day;
+import dev.aoc.common.InputGenerator;
+import dev.aoc.common.InputGenerators;
 import dev.aoc.common.SolutionParser;
 import dev.aoc.common.SolutionSolver;
 import org.apache.commons.math3.analysis.polynomials.PolynomialFunctionLagrangeForm;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -67,6 +66,168 @@ public class Day09 extends Day {
         return result;
     }
 
+    private long[][] rows; // input sequences for extrapolation engine
+
+    @SolutionParser(partNumber = 1, solutionName = "binomial")
+    public void parsePart1_Binomial() {
+        rows = stream().filter(s -> !s.isEmpty()).map(Day09::parseRow).toArray(long[][]::new);
+    }
+
+    @SolutionSolver(partNumber = 1, solutionName = "binomial")
+    public Object solvePart1_Binomial() {
+        return new ExtrapolationEngine(rows).sumNext();
+    }
+
+    @SolutionParser(partNumber = 2, solutionName = "binomial")
+    public void parsePart2_Binomial() {
+        parsePart1_Binomial();
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "binomial")
+    public Object solvePart2_Binomial() {
+        return new ExtrapolationEngine(rows).sumPrevious();
+    }
+
+    /**
+     * Parses space separated numbers without splitting line into strings.
+     */
+    private static long[] parseRow(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) != ' ' && (i == 0 || line.charAt(i - 1) == ' ')) {
+                count++;
+            }
+        }
+        long[] row = new long[count];
+        int start = -1, ri = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            boolean isSeparator = i == line.length() || line.charAt(i) == ' ';
+            if (!isSeparator && start < 0) {
+                start = i;
+            } else if (isSeparator && start >= 0) {
+                row[ri++] = Long.parseLong(line, start, i, 10);
+                start = -1;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Extrapolates without difference tables. For n values, method of differences always ends with n-th differences at the latest,
+     * so the prediction is the same as for degree n-1 polynomial through all values, which gives closed forms:
+     * next value is sum of (-1)^(n-1-i) * C(n, i) * a[i], previous value is sum of (-1)^i * C(n, i+1) * a[i].
+     * Coefficients are computed once per sequence length, every prediction is a single dot product in overflow-checked long
+     * arithmetic, falling back to BigInteger only on overflow. Sequences are processed in parallel chunks.
+     */
+    private static class ExtrapolationEngine {
+        private static final int CHUNK_SIZE = 4096;
+
+        private final long[][] rows;
+        private final Map<Integer, Coefficients> coefficientsPerLength = new HashMap<>();
+
+        /** Long coefficients are null if any of them does not fit in long */
+        private record Coefficients(long[] next, long[] previous, BigInteger[] nextBI, BigInteger[] previousBI) {
+            public static Coefficients of(int length) {
+                BigInteger[] binomials = new BigInteger[length + 1]; // C(length, k)
+                binomials[0] = BigInteger.ONE;
+                for (int k = 1; k <= length; k++) {
+                    binomials[k] = binomials[k - 1].multiply(BigInteger.valueOf(length - k + 1)).divide(BigInteger.valueOf(k));
+                }
+                BigInteger[] nextBI = new BigInteger[length], previousBI = new BigInteger[length];
+                for (int i = 0; i < length; i++) {
+                    nextBI[i] = (length - 1 - i) % 2 == 0 ? binomials[i] : binomials[i].negate();
+                    previousBI[i] = i % 2 == 0 ? binomials[i + 1] : binomials[i + 1].negate();
+                }
+                return new Coefficients(toLongs(nextBI), toLongs(previousBI), nextBI, previousBI);
+            }
+            private static long[] toLongs(BigInteger[] values) {
+                long[] result = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i].bitLength() >= Long.SIZE) {
+                        return null;
+                    }
+                    result[i] = values[i].longValue();
+                }
+                return result;
+            }
+        }
+
+        public ExtrapolationEngine(long[][] rows) {
+            this.rows = rows;
+            for (long[] row : rows) {
+                coefficientsPerLength.computeIfAbsent(row.length, Coefficients::of);
+            }
+        }
+
+        public BigInteger sumNext() {
+            return sum(true);
+        }
+
+        public BigInteger sumPrevious() {
+            return sum(false);
+        }
+
+        public BigInteger predict(long[] row, boolean next) {
+            Coefficients coefficients = coefficientsPerLength.computeIfAbsent(row.length, Coefficients::of);
+            long[] coefficientsLong = next ? coefficients.next : coefficients.previous;
+            try {
+                return BigInteger.valueOf(dot(coefficientsLong, row));
+            } catch (ArithmeticException e) {
+                return dot(next ? coefficients.nextBI : coefficients.previousBI, row);
+            }
+        }
+
+        private BigInteger sum(boolean next) {
+            int chunks = (rows.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            return IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> sum(chunk * CHUNK_SIZE, Math.min(rows.length, (chunk + 1) * CHUNK_SIZE), next))
+                    .reduce(BigInteger.ZERO, BigInteger::add);
+        }
+
+        private BigInteger sum(int from, int to, boolean next) {
+            long sum = 0;
+            BigInteger sumOverflow = BigInteger.ZERO;
+            for (int ri = from; ri < to; ri++) {
+                long[] row = rows[ri];
+                Coefficients coefficients = coefficientsPerLength.get(row.length);
+                long value;
+                try {
+                    value = dot(next ? coefficients.next : coefficients.previous, row);
+                } catch (ArithmeticException e) {
+                    sumOverflow = sumOverflow.add(dot(next ? coefficients.nextBI : coefficients.previousBI, row));
+                    continue;
+                }
+                try {
+                    sum = Math.addExact(sum, value);
+                } catch (ArithmeticException e) {
+                    sumOverflow = sumOverflow.add(BigInteger.valueOf(sum));
+                    sum = value;
+                }
+            }
+            return sumOverflow.add(BigInteger.valueOf(sum));
+        }
+
+        private static long dot(long[] coefficients, long[] row) {
+            if (coefficients == null) {
+                throw new ArithmeticException("coefficients overflow");
+            }
+            long result = 0;
+            for (int i = 0; i < row.length; i++) {
+                result = Math.addExact(result, Math.multiplyExact(coefficients[i], row[i]));
+            }
+            return result;
+        }
+
+        private static BigInteger dot(BigInteger[] coefficients, long[] row) {
+            BigInteger result = BigInteger.ZERO;
+            for (int i = 0; i < row.length; i++) {
+                result = result.add(coefficients[i].multiply(BigInteger.valueOf(row[i])));
+            }
+            return result;
+        }
+    }
+
     /**
      * Predicts next value for input sequence. Uses Lagrange Polynomial Form.
      */
@@ -150,43 +311,38 @@ public class Day09 extends Day {
         return diffs;
     }
 
-    private void createTest(String testSuffix, int numOfSeqs, int length, int constRange) {
-        createTestFile(testSuffix, writer -> {
-            List<String> seqs = IntStream.range(0, numOfSeqs)
-                    .mapToObj(i -> generateSequenceWithoutOverflow(length, constRange))
-                    .map(seq -> Arrays.stream(seq).boxed().map(Object::toString).collect(Collectors.joining(" ")))
-                    .peek(seqStr -> {
-                        try {
-                            writer.write(seqStr);
-                            writer.write("\r\n");
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }).toList();
-            // System.out.println(writeStatuses.allMatch(s -> s) ? "test created" : "test creation failed");
-        });
+    /** Size sequences of 21 values with constants in range -100..100, like the puzzle input, density is not used */
+    @Override
+    protected InputGenerator getInputGenerator() {
+        return (writer, random, size, density) -> {
+            for (int i = 0; i < size; i++) {
+                writer.write(Arrays.stream(generateSequenceWithoutOverflow(random, 21, 100)).mapToObj(Long::toString).collect(Collectors.joining(" ")));
+                writer.write("\r\n");
+            }
+        };
     }
-    private static long[] generateSequenceWithoutOverflow(int length, int constRange) {
+    private static long[] generateSequenceWithoutOverflow(Random random, int length, int constRange) {
         long[] sequence = null;
         do {
             try {
                 // generate sequence
-                sequence = generateSequence(length, constRange);
+                sequence = generateSequence(random, length, constRange);
                 // find solutions, will check if overflows
                 List<Long> seqList = Arrays.stream(sequence).boxed().toList();
                 predictNext(seqList);
                 predictNext(seqList.reversed());
             } catch (ArithmeticException e) {
                 System.out.println("long overflow");
+                sequence = null; // generate again
             }
         } while (sequence == null);
         return sequence;
     }
-    private static long[] generateSequence(int length, int constRange) {
-        int zeroDiffLevel = 1 + (int)Math.round(Math.random() * (length - 1));
+    private static long[] generateSequence(Random random, int length, int constRange) {
+        int zeroDiffLevel = 1 + (int)Math.round(random.nextDouble() * (length - 1));
         double rs = Math.nextUp(-constRange - 0.5), re = Math.nextDown(constRange + 0.5); // move ranges by 0.5 to increase the chance of hitting range extremes
         long[] constants = IntStream.range(0, zeroDiffLevel).mapToLong(i -> {
-            double f = Math.random() / Math.nextDown(1.0);
+            double f = random.nextDouble() / Math.nextDown(1.0);
             return Math.round(rs * (1.0 - f) + re * f);
         }).toArray();
         long[] sequence = new long[length - zeroDiffLevel];
@@ -243,6 +399,81 @@ public class Day09 extends Day {
             day.parsePart2();
             assertEquals(BigInteger.valueOf(1066), day.solvePart2());
         }
+
+        @Test
+        void solvePart1_Binomial_sample() {
+            var day = new Day09("_sample");
+            day.parsePart1_Binomial();
+            assertEquals(BigInteger.valueOf(114), day.solvePart1_Binomial());
+        }
+
+        @Test
+        void solvePart1_Binomial_main() {
+            var day = new Day09("");
+            day.parsePart1_Binomial();
+            assertEquals(BigInteger.valueOf(1762065988), day.solvePart1_Binomial());
+        }
+
+        @Test
+        void solvePart2_Binomial_sample() {
+            var day = new Day09("_sample");
+            day.parsePart2_Binomial();
+            assertEquals(BigInteger.valueOf(2), day.solvePart2_Binomial());
+        }
+
+        @Test
+        void solvePart2_Binomial_main() {
+            var day = new Day09("");
+            day.parsePart2_Binomial();
+            assertEquals(BigInteger.valueOf(1066), day.solvePart2_Binomial());
+        }
+
+        @Test
+        void predict_Binomial_generated() {
+            // long sequences have binomial coefficients over long range, BigInteger fallback is used
+            Random random = new Random(9);
+            for (int length : new int[] { 5, 21, 80 }) {
+                for (int i = 0; i < 200; i++) {
+                    long[] sequence = generateSequenceWithoutOverflow(random, length, 100);
+                    List<Long> seqList = Arrays.stream(sequence).boxed().toList();
+                    var engine = new ExtrapolationEngine(new long[][] { sequence });
+                    assertEquals(BigInteger.valueOf(predictNext(seqList)), engine.predict(sequence, true));
+                    assertEquals(BigInteger.valueOf(predictNext(seqList.reversed())), engine.predict(sequence, false));
+                }
+            }
+        }
+    }
+    public static class Day09Test_SolverBenchmark {
+        @Test
+        void test_large() {
+            String inputSuffix = InputGenerators.getSuffix(100_000, 0, 9);
+            new Day09(inputSuffix).generateInput(inputSuffix, 100_000, 0, 9);
+            benchmark(inputSuffix, 1);
+            benchmark(inputSuffix, 2);
+        }
+        void benchmark(String inputSuffix, int partNumber) {
+            var dayExpected = new Day09(inputSuffix);
+            dayExpected.parsePart1();
+            Object expectedResult = partNumber == 1 ? dayExpected.solvePart1() : dayExpected.solvePart2();
+            Day.benchmark(10, expectedResult, inputSuffix,
+                    List.of("default", "binomial"),
+                    (solutionName) -> {
+                        Day09 day09 = new Day09(inputSuffix);
+                        if (solutionName.equals("binomial")) {
+                            day09.parsePart1_Binomial();
+                        } else {
+                            day09.parsePart1();
+                        }
+                        return day09;
+                    },
+                    (day, solutionName) -> switch (solutionName) {
+                        case "default" -> partNumber == 1 ? day.solvePart1() : day.solvePart2();
+                        case "binomial" -> partNumber == 1 ? day.solvePart1_Binomial() : day.solvePart2_Binomial();
+                        default -> throw new IllegalArgumentException("unknown solution name %s".formatted(solutionName));
+                    },
+                    "part %d, %d sequences".formatted(partNumber, dayExpected.inputs.size())
+            );
+        }
     }
 }
 /*
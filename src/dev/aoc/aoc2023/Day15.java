@@ -38,12 +38,27 @@ public class Day15 extends Day {
         return result;
     }
 
+    @SolutionParser(partNumber = 1, solutionName = "IntArrays")
+    public void parsePart1_IA() {
+        instructionBytes = inputBytes();
+    }
+
+    @SolutionSolver(partNumber = 1, solutionName = "IntArrays")
+    public Object solvePart1_IA() {
+        return new SolverIA().solve(instructionBytes).checksum();
+    }
+
     @SolutionParser(partNumber = 2)
     public void parsePart2() {
         parsePart1();
         instructionLenses.addAll(instructions.stream().map(Lens::parse).toList());
     }
 
+    @SolutionParser(partNumber = 2, solutionName = "IntArrays")
+    public void parsePart2_IA() {
+        instructionBytes = inputBytes();
+    }
+
     @SolutionSolver(partNumber = 2, solutionName = "LinkedHashMap")
     public Object solvePart2_LHM() {
         return SolverType.LHM.getSolver().solve(instructionLenses);
@@ -52,6 +67,10 @@ public class Day15 extends Day {
     public Object solvePart2_AL() {
         return SolverType.AL.getSolver().solve(instructionLenses);
     }
+    @SolutionSolver(partNumber = 2, solutionName = "IntArrays")
+    public Object solvePart2_IA() {
+        return new SolverIA().solve(instructionBytes).focusingPower();
+    }
 
     private enum SolverType {
         LHM { @Override public ISolver getSolver() { return new SolverLHM(); } },
@@ -150,9 +169,154 @@ public class Day15 extends Day {
                     ;
         }
     }
+    /**
+     * Single pass over raw instruction bytes, computes both part 1 checksum and part 2 focusing power.
+     * No strings, no Lens records: HASH is computed on the fly, labels are interned into int ids
+     * using open addressing table (label is kept as range of input bytes). Every label owns one lens slot,
+     * boxes are intrusive doubly-linked lists of slots over preallocated int arrays.
+     */
+    private static class SolverIA {
+        public record Result(long checksum, long focusingPower) {}
+
+        private static final int NONE = -1;
+        private static final int BOXES = 256;
+
+        private byte[] bytes;
+        private int[] table; // open addressing: label hash -> label id
+        private int tableMask;
+        private int[] labelStart, labelLength; // label id -> range of input bytes
+        private int labelCount;
+        private int[] focalLength, prev, next; // lens slot per label id, focal length 0 means not in any box
+        private final int[] boxHead = new int[BOXES], boxTail = new int[BOXES];
+
+        public Result solve(byte[] bytes) {
+            init(bytes);
+            long checksum = 0;
+            int pos = 0, length = bytes.length;
+            while (true) {
+                while (pos < length && (bytes[pos] == '\n' || bytes[pos] == '\r')) {
+                    pos++; // newlines are ignored
+                }
+                if (pos >= length) {
+                    break;
+                }
+                // label, HASH of the label is the box number
+                int start = pos, stepHash = 0, labelHash = 0;
+                byte b;
+                while ((b = bytes[pos]) != '=' && b != '-') {
+                    stepHash = ((stepHash + b) * 17) & 0xFF;
+                    labelHash = labelHash * 31 + b;
+                    pos++;
+                }
+                int box = stepHash;
+                int id = intern(start, pos - start, labelHash);
+                // operation, "label-" or "label=focal_length"
+                stepHash = ((stepHash + b) * 17) & 0xFF;
+                pos++;
+                if (b == '-') {
+                    remove(box, id);
+                } else {
+                    int focal = 0;
+                    while (pos < length && (b = bytes[pos]) >= '0' && b <= '9') {
+                        stepHash = ((stepHash + b) * 17) & 0xFF;
+                        focal = focal * 10 + (b - '0');
+                        pos++;
+                    }
+                    put(box, id, focal);
+                }
+                checksum += stepHash;
+                if (pos < length && bytes[pos] == ',') {
+                    pos++;
+                }
+            }
+            return new Result(checksum, focusingPower());
+        }
+
+        private void init(byte[] bytes) {
+            this.bytes = bytes;
+            int maxSteps = 1;
+            for (byte b : bytes) {
+                if (b == ',') {
+                    maxSteps++;
+                }
+            }
+            int tableSize = Integer.highestOneBit(maxSteps) << 2; // load factor at most 0.5
+            table = new int[tableSize];
+            Arrays.fill(table, NONE);
+            tableMask = tableSize - 1;
+            labelStart = new int[maxSteps];
+            labelLength = new int[maxSteps];
+            labelCount = 0;
+            focalLength = new int[maxSteps];
+            prev = new int[maxSteps];
+            next = new int[maxSteps];
+            Arrays.fill(boxHead, NONE);
+            Arrays.fill(boxTail, NONE);
+        }
+
+        private int intern(int start, int length, int labelHash) {
+            int slot = (labelHash ^ (labelHash >>> 16)) & tableMask;
+            int id;
+            while ((id = table[slot]) != NONE) {
+                if (labelLength[id] == length && Arrays.equals(bytes, labelStart[id], labelStart[id] + length, bytes, start, start + length)) {
+                    return id;
+                }
+                slot = (slot + 1) & tableMask;
+            }
+            id = labelCount++;
+            table[slot] = id;
+            labelStart[id] = start;
+            labelLength[id] = length;
+            return id;
+        }
+
+        private void put(int box, int id, int focal) {
+            if (focalLength[id] == 0) { // append at the back of the box
+                prev[id] = boxTail[box];
+                next[id] = NONE;
+                if (boxTail[box] == NONE) {
+                    boxHead[box] = id;
+                } else {
+                    next[boxTail[box]] = id;
+                }
+                boxTail[box] = id;
+            }
+            focalLength[id] = focal; // replace in place if already in the box
+        }
+
+        private void remove(int box, int id) {
+            if (focalLength[id] == 0) {
+                return;
+            }
+            if (prev[id] == NONE) {
+                boxHead[box] = next[id];
+            } else {
+                next[prev[id]] = next[id];
+            }
+            if (next[id] == NONE) {
+                boxTail[box] = prev[id];
+            } else {
+                prev[next[id]] = prev[id];
+            }
+            focalLength[id] = 0;
+        }
+
+        private long focusingPower() {
+            long result = 0;
+            for (int box = 0; box < BOXES; box++) {
+                int slotNumber = 1;
+                for (int id = boxHead[box]; id != NONE; id = next[id]) {
+                    result += (long)(box + 1) * slotNumber++ * focalLength[id];
+                }
+            }
+            return result;
+        }
+    }
 
     private final List<String> instructions = new ArrayList<>(); // raw instructions
 
+    private byte[] instructionBytes; // raw input, for solver working directly on bytes
+
     private record Lens(String label, int focalLength) {
         public static final int FOCAL_LENGTH_REMOVE_LENS = 0;
         public static Lens parse(String inst) {
@@ -240,6 +404,61 @@ public class Day15 extends Day {
             assertEquals(267372L, resultLHM);
             assertEquals(267372L, resultAL);
         }
+
+        @Test
+        void solvePart1_IA_sample() {
+            var day = new Day15("_sample");
+            day.parsePart1_IA();
+            assertEquals(1320L, day.solvePart1_IA());
+        }
+
+        @Test
+        void solvePart1_IA_main() {
+            var day = new Day15("");
+            day.parsePart1_IA();
+            assertEquals(517965L, day.solvePart1_IA());
+        }
+
+        @Test
+        void solvePart2_IA_sample() {
+            var day = new Day15("_sample");
+            day.parsePart2_IA();
+            assertEquals(145L, day.solvePart2_IA());
+        }
+
+        @Test
+        void solvePart2_IA_main() {
+            var day = new Day15("");
+            day.parsePart2_IA();
+            assertEquals(267372L, day.solvePart2_IA());
+        }
+    }
+    public static class Day15Test_SolverBenchmark {
+        @Test
+        void test_main() {
+            benchmark("", 267372L);
+        }
+        void benchmark(String inputSuffix, Object expectedResult) {
+            Day.benchmark(20, expectedResult, inputSuffix,
+                    List.of("LinkedHashMap", "ArrayList", "IntArrays"),
+                    (solutionName) -> {
+                        Day15 day15 = new Day15(inputSuffix);
+                        if (solutionName.equals("IntArrays")) {
+                            day15.parsePart2_IA();
+                        } else {
+                            day15.parsePart2();
+                        }
+                        return day15;
+                    },
+                    (day, solutionName) -> switch (solutionName) {
+                        case "LinkedHashMap" -> day.solvePart2_LHM();
+                        case "ArrayList" -> day.solvePart2_AL();
+                        case "IntArrays" -> day.solvePart2_IA();
+                        default -> throw new IllegalArgumentException("unknown solution name %s".formatted(solutionName));
+                    },
+                    "part 2"
+            );
+        }
     }
 }
 /*
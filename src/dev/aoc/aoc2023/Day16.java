@@ -4,8 +4,12 @@ import dev.aoc.common.*;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -18,7 +22,8 @@ public class Day16 extends Day {
         Day.run(() -> new Day16("_sample")); // _sample, _loop_1, _loop_2, _large1
     }
 
-    private Grid<Character> objectGrid; // '.' empty, '|' and '-' splitter, '/' and '\' mirrors
+    private GridOfCharsView objectView; // '.' empty, '|' and '-' splitter, '/' and '\' mirrors, over input bytes
+    private Grid<Character> objectGrid; // the same as object view, copied on first use by getObjectGrid
 
     public record BeamStart(int posX, int posY, Grid.Direction dir) {}
 
@@ -147,15 +152,94 @@ public class Day16 extends Day {
         }
     }
 
+    /** Light beams over flat grids (selectable layout), energized cells keep bit mask of beam directions passed */
+    private static class LightGridFlat {
+        private static final int[] D_COL = { 0, 1, 0, -1 }; // up, right, down, left (as Grid.Direction.toScalar)
+        private static final int[] D_ROW = { -1, 0, 1, 0 };
+        private final GridOfChars objectGrid;
+        private final GridOfChars energyGrid;
+        private int[] stack = new int[64]; // beam heads: index, col, row, direction
+
+        public LightGridFlat(GridOfCharsView objectGrid, GridOfChars.Layout layout) {
+            this.objectGrid = objectGrid.toGridOfChars(layout);
+            this.energyGrid = new GridOfChars(objectGrid.getWidth(), objectGrid.getHeight(), (char)0, layout);
+        }
+
+        public int countEnergized(BeamStart start) {
+            energyGrid.fill((char)0);
+            int size = push(0, energyGrid.indexOf(start.posX(), start.posY()), start.posX(), start.posY(), start.dir().toScalar());
+            int energized = 0;
+            while (size > 0) {
+                size -= 4;
+                int index = stack[size], col = stack[size + 1], row = stack[size + 2], dir = stack[size + 3];
+                while (true) {
+                    char energy = energyGrid.getAt(index);
+                    if ((energy & (1 << dir)) != 0) {
+                        break; // beam already passed this way
+                    }
+                    if (energy == 0) {
+                        energized++;
+                    }
+                    energyGrid.setAt(index, (char)(energy | (1 << dir)));
+                    switch (objectGrid.getAt(index)) {
+                        case '/' -> dir = dir ^ 1; // up <-> right, down <-> left
+                        case '\\' -> dir = 3 - dir; // up <-> left, right <-> down
+                        case '|' -> {
+                            if ((dir & 1) != 0) {
+                                size = pushStep(size, index, col, row, 0);
+                                dir = 2;
+                            }
+                        }
+                        case '-' -> {
+                            if ((dir & 1) == 0) {
+                                size = pushStep(size, index, col, row, 3);
+                                dir = 1;
+                            }
+                        }
+                        default -> {}
+                    }
+                    col += D_COL[dir];
+                    row += D_ROW[dir];
+                    if (!energyGrid.hasColumn(col) || !energyGrid.hasRow(row)) {
+                        break;
+                    }
+                    index = step(index, dir);
+                }
+            }
+            return energized;
+        }
+        private int step(int index, int dir) {
+            return switch (dir) {
+                case 0 -> energyGrid.up(index);
+                case 1 -> energyGrid.right(index);
+                case 2 -> energyGrid.down(index);
+                default -> energyGrid.left(index);
+            };
+        }
+        private int pushStep(int size, int index, int col, int row, int dir) {
+            int nextCol = col + D_COL[dir], nextRow = row + D_ROW[dir];
+            return energyGrid.hasColumn(nextCol) && energyGrid.hasRow(nextRow) ? push(size, step(index, dir), nextCol, nextRow, dir) : size;
+        }
+        private int push(int size, int index, int col, int row, int dir) {
+            if (size + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[size] = index;
+            stack[size + 1] = col;
+            stack[size + 2] = row;
+            stack[size + 3] = dir;
+            return size + 4;
+        }
+    }
+
     @SolutionParser(partNumber = 1)
     public void parsePart1() {
-        // createTest("_large1", 500, 0.105);
         parse();
     }
 
     @SolutionSolver(partNumber = 1)
     public Object solvePart1() {
-        LightGrid lightGrid = new LightGridPropagate(objectGrid);
+        LightGrid lightGrid = new LightGridPropagate(getObjectGrid());
         long result = lightGrid.countEnergized(new BeamStart(0, 0, Grid.Direction.RIGHT));
         // long result = lightGrid.countEnergized(new BeamStart(9, 2, Grid.Direction.LEFT));
         // System.out.println(lightGrid);
@@ -169,6 +253,7 @@ public class Day16 extends Day {
 
     @SolutionSolver(partNumber = 2)
     public Object solvePart2() {
+        Grid<Character> objectGrid = getObjectGrid();
         LightGrid lightGrid = new LightGridPropagate(objectGrid);
         long[] results = new long[4];
         results[0] = IntStream.range(0, objectGrid.getWidth()).mapToLong(col -> lightGrid.countEnergized(new BeamStart(col, 0, Grid.Direction.DOWN))).max().getAsLong();
@@ -179,36 +264,77 @@ public class Day16 extends Day {
         return result;
     }
 
+    @SolutionSolver(partNumber = 1, solutionName = "flat grid")
+    public Object solvePart1_FlatGrid() {
+        return (long)new LightGridFlat(objectView, GridOfChars.Layout.ROW_MAJOR).countEnergized(new BeamStart(0, 0, Grid.Direction.RIGHT));
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "flat grid")
+    public Object solvePart2_FlatGrid() {
+        return solvePart2_FlatGrid(GridOfChars.Layout.ROW_MAJOR);
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "flat grid tiled")
+    public Object solvePart2_FlatGridTiled() {
+        return solvePart2_FlatGrid(GridOfChars.Layout.TILED);
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "flat grid Morton")
+    public Object solvePart2_FlatGridMorton() {
+        return solvePart2_FlatGrid(GridOfChars.Layout.MORTON);
+    }
+
+    public long solvePart2_FlatGrid(GridOfChars.Layout layout) {
+        LightGridFlat lightGrid = new LightGridFlat(objectView, layout);
+        int width = objectView.getWidth(), height = objectView.getHeight();
+        long result = 0;
+        for (int col = 0; col < width; col++) {
+            result = Math.max(result, lightGrid.countEnergized(new BeamStart(col, 0, Grid.Direction.DOWN)));
+            result = Math.max(result, lightGrid.countEnergized(new BeamStart(col, height - 1, Grid.Direction.UP)));
+        }
+        for (int row = 0; row < height; row++) {
+            result = Math.max(result, lightGrid.countEnergized(new BeamStart(0, row, Grid.Direction.RIGHT)));
+            result = Math.max(result, lightGrid.countEnergized(new BeamStart(width - 1, row, Grid.Direction.LEFT)));
+        }
+        return result;
+    }
+
     private void parse() {
-        objectGrid = new Grid<>(stream().toList(), "", s -> s.charAt(0), Character.class);
-        int countEmpty = objectGrid.count(c -> c == '.');
-        int countSplitterVertical = objectGrid.count(c -> c == '|');
-        int countSplitterHorizontal = objectGrid.count(c -> c == '-');
-        int countMirror1 = objectGrid.count(c -> c == '/');
-        int countMirror2 = objectGrid.count(c -> c == '\\');
-        int all = objectGrid.getWidth() * objectGrid.getHeight();
-        System.out.printf("mirror grid %d x %d: %.2f%% empty, %.2f%% mirrors (%.2f%% /, %.2f%% \\), %.2f%% splitters (%.2f%% |, %.2f%% -) %n", objectGrid.getWidth(), objectGrid.getHeight(), 100.0*countEmpty/all, 100.0*(countMirror1+countMirror2)/all, 100.0*countMirror1/all, 100.0*countMirror2/all, 100.0*(countSplitterHorizontal+countSplitterVertical)/all, 100.0*countSplitterHorizontal/all, 100.0*countSplitterVertical/all);
-        // System.out.println(objectGrid);
+        objectView = inputGridView();
+        objectGrid = null;
+        int countEmpty = objectView.count(c -> c == '.');
+        int countSplitterVertical = objectView.count(c -> c == '|');
+        int countSplitterHorizontal = objectView.count(c -> c == '-');
+        int countMirror1 = objectView.count(c -> c == '/');
+        int countMirror2 = objectView.count(c -> c == '\\');
+        int all = objectView.getWidth() * objectView.getHeight();
+        System.out.printf("mirror grid %d x %d: %.2f%% empty, %.2f%% mirrors (%.2f%% /, %.2f%% \\), %.2f%% splitters (%.2f%% |, %.2f%% -) %n", objectView.getWidth(), objectView.getHeight(), 100.0*countEmpty/all, 100.0*(countMirror1+countMirror2)/all, 100.0*countMirror1/all, 100.0*countMirror2/all, 100.0*(countSplitterHorizontal+countSplitterVertical)/all, 100.0*countSplitterHorizontal/all, 100.0*countSplitterVertical/all);
+        // System.out.println(objectView);
     }
 
-    private void createTest(String testSuffix, int side, double probObject) {
-        createTestFile(testSuffix, writer -> {
-            var rng = new Random();
-            Grid<Character> test = new Grid<>(side, side, '.', "");
+    /** Object grid for solvers working on Grid, copied from input on first use, so parsing itself copies nothing */
+    private Grid<Character> getObjectGrid() {
+        if (objectGrid == null) {
+            objectGrid = objectView.toGrid();
+        }
+        return objectGrid;
+    }
+
+    /** Square grid of size cells, density is probability of object (mirror or splitter) in cell, _large1 is 250000 at 0.105 */
+    @Override
+    protected InputGenerator getInputGenerator() {
+        return (writer, random, size, density) -> {
+            int side = (int)Math.round(Math.sqrt(size));
             String objects = "/\\|-";
-            test.map((row, col) -> {
-                if (rng.nextDouble() < probObject) {
-                    return objects.charAt(rng.nextInt(objects.length()));
-                } else {
-                    return '.';
+            char[] line = new char[side];
+            for (int row = 0; row < side; row++) {
+                for (int col = 0; col < side; col++) {
+                    line[col] = random.nextDouble() < density ? objects.charAt(random.nextInt(objects.length())) : '.';
                 }
-            });
-            try {
-                writer.append(test.toString());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                writer.write(line);
+                writer.write("\r\n");
             }
-        });
+        };
     }
 
     public static class Day16Test {
@@ -218,6 +344,22 @@ public class Day16 extends Day {
             day.parsePart1();
             assertEquals(46L, day.solvePart1());
         }
+        @Test
+        void solvePart1_compressed() throws IOException {
+            // gzip variant is read when there is no plain input file
+            Path compressed = Path.of("inputs/2023/aoc_2023-16_sample_gz.txt.gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+                Files.copy(Path.of("inputs/2023/aoc_2023-16_sample.txt"), out);
+            }
+            try {
+                var day = new Day16("_sample_gz");
+                day.parsePart1();
+                assertEquals(46L, day.solvePart1());
+                assertEquals(new Day16("_sample").inputString(), day.inputString());
+            } finally {
+                Files.delete(compressed);
+            }
+        }
 
         @Test
         void solvePart1_main() {
@@ -233,6 +375,28 @@ public class Day16 extends Day {
             assertEquals(51L, day.solvePart2());
         }
 
+        @Test
+        void solveFlatGrid_sample() {
+            var day = new Day16("_sample");
+            day.parsePart1();
+            assertEquals(46L, day.solvePart1_FlatGrid());
+            for (GridOfChars.Layout layout : GridOfChars.Layout.values()) {
+                assertEquals(51L, day.solvePart2_FlatGrid(layout));
+            }
+        }
+
+        @Test
+        void solveFlatGrid_loops() {
+            for (String inputSuffix : List.of("_loop_1", "_loop_2")) {
+                var day = new Day16(inputSuffix);
+                day.parsePart2();
+                Object expected = day.solvePart2();
+                for (GridOfChars.Layout layout : GridOfChars.Layout.values()) {
+                    assertEquals(expected, day.solvePart2_FlatGrid(layout));
+                }
+            }
+        }
+
         @Test
         void solvePart2_main() {
             var day = new Day16("");
@@ -240,6 +404,45 @@ public class Day16 extends Day {
             assertEquals(9064L, day.solvePart2());
         }
     }
+    public static class Day16Test_Benchmark {
+        @Test
+        void test_large1() {
+            String inputSuffix = "_large1";
+            var dayExpected = new Day16(inputSuffix);
+            dayExpected.parsePart2();
+            Object expectedResult = dayExpected.solvePart2_FlatGrid(GridOfChars.Layout.ROW_MAJOR);
+            Day.benchmark(5, expectedResult, inputSuffix,
+                    List.of(GridOfChars.Layout.values()),
+                    (layout) -> {
+                        Day16 day16 = new Day16(inputSuffix);
+                        day16.parsePart2();
+                        return day16;
+                    },
+                    (day, layout) -> day.solvePart2_FlatGrid(layout),
+                    "part 2, flat grid layouts"
+            );
+        }
+
+        @Test
+        void test_scaling() {
+            // generated 50x50, 158x158 and 500x500 grids with objects as dense as in _large1
+            for (String inputSuffix : InputGenerators.ladder(Day16::new, 2_500, 0.105, 3, 1)) {
+                var dayExpected = new Day16(inputSuffix);
+                dayExpected.parsePart2();
+                Object expectedResult = dayExpected.solvePart2_FlatGrid(GridOfChars.Layout.ROW_MAJOR);
+                Day.benchmark(3, expectedResult, inputSuffix,
+                        List.of(GridOfChars.Layout.values()),
+                        (layout) -> {
+                            Day16 day16 = new Day16(inputSuffix);
+                            day16.parsePart2();
+                            return day16;
+                        },
+                        (day, layout) -> day.solvePart2_FlatGrid(layout),
+                        "part 2, flat grid layouts, scaling"
+                );
+            }
+        }
+    }
 }
 /*
 
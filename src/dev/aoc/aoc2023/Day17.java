@@ -10,11 +10,15 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class Day17 extends Day {
     public Day17(String inputSuffix) {
@@ -50,11 +54,27 @@ public class Day17 extends Day {
         return solve(SolverType.JKK_BOTTOMUP, 1, 3);
     }
 
+    @SolutionSolver(partNumber = 1, solutionName = "JKK bottom-up parallel")
+    public Object solvePart1_JKKParallel() {
+        return solve(SolverType.JKK_BOTTOMUP_PARALLEL, 1, 3);
+    }
+
     @SolutionSolver(partNumber = 1, solutionName = "A*")
     public Object solvePart1_AStar() {
         return solve(SolverType.ASTAR, 1, 3);
     }
 
+    @SolutionSolver(partNumber = 1, solutionName = "A* bidirectional")
+    public Object solvePart1_AStarBidirectional() {
+        return solve(SolverType.ASTAR_BIDIRECTIONAL, 1, 3);
+    }
+
+    /** Heat loss field of part run constraints is computed once and reused, see getHeatLossField */
+    @SolutionSolver(partNumber = 1, solutionName = "reverse Dijkstra field")
+    public Object solvePart1_Field() {
+        return (long)getHeatLossField(1, 3).getHeatLoss(0, 0);
+    }
+
     @SolutionParser(partNumber = 2)
     public void parsePart2() {
         parse();
@@ -65,20 +85,52 @@ public class Day17 extends Day {
         return solve(SolverType.JKK_BOTTOMUP, 4, 10);
     }
 
+    @SolutionSolver(partNumber = 2, solutionName = "JKK bottom-up parallel")
+    public Object solvePart2_JKKParallel() {
+        return solve(SolverType.JKK_BOTTOMUP_PARALLEL, 4, 10);
+    }
+
     @SolutionSolver(partNumber = 2, solutionName = "A*")
     public Object solvePart2_AStar() {
         return solve(SolverType.ASTAR, 4, 10);
     }
 
+    @SolutionSolver(partNumber = 2, solutionName = "A* bidirectional")
+    public Object solvePart2_AStarBidirectional() {
+        return solve(SolverType.ASTAR_BIDIRECTIONAL, 4, 10);
+    }
+
+    @SolutionSolver(partNumber = 2, solutionName = "reverse Dijkstra field")
+    public Object solvePart2_Field() {
+        return (long)getHeatLossField(4, 10).getHeatLoss(0, 0);
+    }
+
     private void parse() {
         var mapStrings = stream().collect(Collectors.toList());
         Function<String, Integer> parser = Integer::parseInt;
         if (this.getInputSuffix().contains("_blackhole_")) parser = CityGrid::parserBlackhole;
         cityGrid = new CityGrid(mapStrings, "", parser, Integer.class);
+        heatLossFields.clear();
         // System.out.printf("city grid %d x %d, hash %d%n", cityGrid.getWidth(), cityGrid.getHeight(), cityGrid.hashCode());
         // System.out.println(cityGrid);
     }
 
+    /** Square city grid of size cells, density is probability of cost 9 in cell, other costs 1-8 are uniform (1/9 gives uniform 1-9) */
+    @Override
+    protected InputGenerator getInputGenerator() {
+        return (writer, random, size, density) -> {
+            int side = (int)Math.round(Math.sqrt(size));
+            char[] line = new char[side];
+            for (int row = 0; row < side; row++) {
+                for (int col = 0; col < side; col++) {
+                    line[col] = random.nextDouble() < density ? '9' : (char)('1' + random.nextInt(8));
+                }
+                writer.write(line);
+                writer.write("\r\n");
+            }
+        };
+    }
+
     private long solve(SolverType solverType, int runMinimum, int runMaximum) {
         CityGrid.Position positionStart = cityGrid.getPosition(0, 0);
         CityGrid.Position positionTarget = cityGrid.getPosition(cityGrid.getWidth() - 1, cityGrid.getHeight() - 1);
@@ -89,6 +141,22 @@ public class Day17 extends Day {
 
     public static final int MAX_RUN_MAXIMUM = 10;
 
+    /** Heat loss fields towards bottom-right corner, per run constraints, see heatLossFieldKey */
+    private final Map<Integer, HeatLossField> heatLossFields = new HashMap<>();
+
+    private static int heatLossFieldKey(int runMinimum, int runMaximum) {
+        return runMinimum * (MAX_RUN_MAXIMUM + 1) + runMaximum;
+    }
+
+    /**
+     * Get cached heat loss field, computing only the requested one. Day.run solves each part on a fresh instance,
+     * computing field of the other part ahead would only add its time to the timing of this part.
+     */
+    private HeatLossField getHeatLossField(int runMinimum, int runMaximum) {
+        int targetCol = cityGrid.getWidth() - 1, targetRow = cityGrid.getHeight() - 1;
+        return heatLossFields.computeIfAbsent(heatLossFieldKey(runMinimum, runMaximum), key -> new HeatLossField(cityGrid, targetCol, targetRow, runMinimum, runMaximum));
+    }
+
     private static class CityGrid extends Grid<Integer> {
         public CityGrid(List<String> lines, String elementDelimiter, Function<String, Integer> parser, Class<?> elementClass) {
             super(lines, elementDelimiter, parser, elementClass);
@@ -118,7 +186,7 @@ public class Day17 extends Day {
             return positions.get(id);
         }
 
-        private final Map<Integer, Position> positions = new HashMap<>();
+        private final Map<Integer, Position> positions = new ConcurrentHashMap<>(); // concurrent for parallel graph searches
 
         public static class Position implements GraphNode {
             public final int col;
@@ -170,11 +238,41 @@ public class Day17 extends Day {
                 return new SolverJKK();
             }
         },
+        JKK_BOTTOMUP_PARALLEL {
+            @Override
+            public ISolver getSolver() {
+                return new SolverJKKParallel();
+            }
+        },
+        REVERSE_DIJKSTRA_FIELD {
+            @Override
+            public ISolver getSolver() {
+                return new SolverHeatLossField();
+            }
+        },
         ASTAR {
             @Override
             public ISolver getSolver() {
                 return new SolverAStar();
             }
+        },
+        ASTAR_BIDIRECTIONAL {
+            @Override
+            public ISolver getSolver() {
+                return new SolverAStarBidirectional();
+            }
+        },
+        DIJKSTRA_STATE_GRAPH {
+            @Override
+            public ISolver getSolver() {
+                return new SolverDijkstra();
+            }
+        },
+        DELTA_STEPPING_STATE_GRAPH {
+            @Override
+            public ISolver getSolver() {
+                return new SolverDeltaStepping();
+            }
         };
         public abstract ISolver getSolver();
     }
@@ -206,6 +304,98 @@ public class Day17 extends Day {
         protected abstract long solve();
     }
 
+    /** A* over state graph of SolverAStar searching from both ends, with manhattan distance estimates towards target and from start */
+    private static class SolverAStarBidirectional extends SolverBase {
+        /** Reverse of A* state graph: predecessors of state are positions along axis of its previous move, with the other axis */
+        private record ReverseStateGraph(CityGrid cityGrid, int runMinimum, int runMaximum) implements Graph<SolverAStar.StateNode> {
+            @Override
+            public SolverAStar.StateNode getNode(long id) {
+                throw new IllegalStateException("not implemented");
+            }
+            @Override
+            public Set<SolverAStar.StateNode> getEdges(SolverAStar.StateNode node) {
+                HashSet<SolverAStar.StateNode> result = new HashSet<>();
+                forEachEdge(node, null, (previousNode, cost) -> result.add(previousNode));
+                return result;
+            }
+            @Override
+            public void forEachEdge(SolverAStar.StateNode node, Scorer<SolverAStar.StateNode> scorer, EdgeConsumer<SolverAStar.StateNode> consumer) {
+                SolverAStar.StateNode.Axis previousAxis = node.axisPrevious().turn();
+                Grid.Direction[] directions = switch (node.axisPrevious()) {
+                    case HORIZONTAL -> SolverAStar.StateGraph.directionsHorizontal;
+                    case VERTICAL -> SolverAStar.StateGraph.directionsVertical;
+                };
+                for (Grid.Direction direction : directions) {
+                    int previousCol = node.position().col + direction.dCol * (runMinimum - 1);
+                    int previousRow = node.position().row + direction.dRow * (runMinimum - 1);
+                    for (int runSteps = runMinimum; runSteps <= runMaximum; runSteps++) {
+                        previousCol += direction.dCol;
+                        previousRow += direction.dRow;
+                        if (!cityGrid.hasPos(previousCol, previousRow)) {
+                            break;
+                        }
+                        SolverAStar.StateNode previousNode = new SolverAStar.StateNode(cityGrid.getPosition(previousCol, previousRow), previousAxis);
+                        consumer.accept(previousNode, scorer != null ? scorer.computeCost(node, previousNode) : 0);
+                    }
+                }
+            }
+        }
+        @Override
+        protected long solve() {
+            Scorer<SolverAStar.StateNode> manhattanScorer = new SolverAStar.TargetNodeScorers.ManhattanDistanceScorer();
+            RouteFinderBidirectional<SolverAStar.StateNode> routeFinder = new RouteFinderBidirectional<>(
+                    new SolverAStar.StateGraph(cityGrid, runMinimum, runMaximum),
+                    new ReverseStateGraph(cityGrid, runMinimum, runMaximum),
+                    new SolverAStar.NextNodeScorer(cityGrid),
+                    manhattanScorer,
+                    manhattanScorer
+            );
+            Pair<List<SolverAStar.StateNode>, Long> route = routeFinder.findRoute(
+                    List.of(new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.HORIZONTAL), new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.VERTICAL)),
+                    List.of(new SolverAStar.StateNode(target, SolverAStar.StateNode.Axis.HORIZONTAL), new SolverAStar.StateNode(target, SolverAStar.StateNode.Axis.VERTICAL))
+            );
+            return route.getValue1();
+        }
+    }
+
+    /** Full search of A* state graph with Dijkstra over FibonacciHeap, serves as baseline for delta-stepping */
+    private static class SolverDijkstra extends SolverBase {
+        @Override
+        protected long solve() {
+            RouteFinderDijkstra<SolverAStar.StateNode> routeFinder = new RouteFinderDijkstra<>(
+                    new SolverAStar.StateGraph(cityGrid, runMinimum, runMaximum),
+                    new SolverAStar.NextNodeScorer(cityGrid)
+            );
+            Map<SolverAStar.StateNode, Long> scores = routeFinder.search(List.of(
+                    new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.HORIZONTAL),
+                    new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.VERTICAL)
+            ));
+            return Math.min(
+                    scores.getOrDefault(new SolverAStar.StateNode(target, SolverAStar.StateNode.Axis.HORIZONTAL), Long.MAX_VALUE),
+                    scores.getOrDefault(new SolverAStar.StateNode(target, SolverAStar.StateNode.Axis.VERTICAL), Long.MAX_VALUE)
+            );
+        }
+    }
+
+    /** Full search of A* state graph with parallel delta-stepping, state ids are dense (position id * 2 + axis) */
+    private static class SolverDeltaStepping extends SolverBase {
+        @Override
+        protected long solve() {
+            // bucket width of typical single move cost: average cell cost is about 5, moves are run minimum cells long at least
+            long delta = 5L * runMinimum + 4;
+            RouteFinderDeltaStepping<SolverAStar.StateNode> routeFinder = new RouteFinderDeltaStepping<>(
+                    new SolverAStar.StateGraph(cityGrid, runMinimum, runMaximum),
+                    new SolverAStar.NextNodeScorer(cityGrid),
+                    delta
+            );
+            long[] scores = routeFinder.searchDense(List.of(
+                    new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.HORIZONTAL),
+                    new SolverAStar.StateNode(start, SolverAStar.StateNode.Axis.VERTICAL)
+            ), cityGrid.getUniqueIdMax() * 2);
+            return Math.min(scores[target.id * 2 + SolverAStar.StateNode.Axis.HORIZONTAL.ordinal()], scores[target.id * 2 + SolverAStar.StateNode.Axis.VERTICAL.ordinal()]);
+        }
+    }
+
     /** (/u/morgoth1145 from reddit/r/adventofcode) A* over state space of (position, previous direction) and next move changing direction (one move is many steps on the grid)
      * source: https://old.reddit.com/r/adventofcode/comments/18k9ne5/2023_day_17_solutions/kdpwy80/
      * repo: https://github.com/morgoth1145/advent-of-code/blob/2023-python/2023/17/solution.py
@@ -263,24 +453,38 @@ public class Day17 extends Day {
             @Override
             public Set<StateNode> getEdges(StateNode node) {
                 HashSet<StateNode> result = new HashSet<>();
+                forEachEdge(node, null, (nextNode, cost) -> result.add(nextNode));
+                return result;
+            }
+            /** Cost of moves is extended along the run from previous move by scorer (see Scorer.computeRunCost), no set is allocated */
+            @Override
+            public void forEachEdge(StateNode node, Scorer<StateNode> scorer, EdgeConsumer<StateNode> consumer) {
                 StateNode.Axis newAxis = node.axisPrevious.turn();
                 Grid.Direction[] newDirections = switch (newAxis) {
                     case HORIZONTAL -> directionsHorizontal;
                     case VERTICAL -> directionsVertical;
                 };
                 for (Grid.Direction newDirection : newDirections) {
-                    int newCol = node.position.col + newDirection.dCol * (runMinimum - 1);
-                    int newRow = node.position.row + newDirection.dRow * (runMinimum - 1);
-                    for (int runSteps = runMinimum; runSteps <= runMaximum; runSteps++) {
+                    int newCol = node.position.col, newRow = node.position.row;
+                    StateNode step = node;
+                    long runCost = 0;
+                    for (int runSteps = 1; runSteps <= runMaximum; runSteps++) {
                         newCol += newDirection.dCol;
                         newRow += newDirection.dRow;
                         if (!cityGrid.hasPos(newCol, newRow)) {
                             break;
                         }
-                        result.add(new StateNode(cityGrid.getPosition(newCol, newRow), newAxis));
+                        if (runSteps < runMinimum) {
+                            continue;
+                        }
+                        StateNode nextNode = new StateNode(cityGrid.getPosition(newCol, newRow), newAxis);
+                        if (scorer != null) {
+                            runCost = scorer.computeRunCost(node, step, runCost, nextNode);
+                        }
+                        step = nextNode;
+                        consumer.accept(nextNode, runCost);
                     }
                 }
-                return result;
             }
         }
         /** Cost (score) between nodes is sum of city grid cell ("heat loss" from the story) */
@@ -303,6 +507,10 @@ public class Day17 extends Day {
                 }
                 return result;
             }
+            @Override
+            public long computeRunCost(StateNode from, StateNode step, long costToStep, StateNode to) {
+                return costToStep + computeCost(step, to); // costs of cells are summed along the run
+            }
         }
         /** Target node scorer guides route finder search to steer it towards target more effectively */
         private static class TargetNodeScorers {
@@ -380,14 +588,20 @@ public class Day17 extends Day {
                     @Override
                     public Set<CityGrid.Position> getEdges(CityGrid.Position pos) {
                         HashSet<CityGrid.Position> result = new HashSet<>();
+                        forEachEdge(pos, null, (nextPos, cost) -> result.add(nextPos));
+                        return result;
+                    }
+                    private static final Grid.Direction[] directionsAll = Grid.Direction.getAll();
+                    @Override
+                    public void forEachEdge(CityGrid.Position pos, Scorer<CityGrid.Position> scorer, EdgeConsumer<CityGrid.Position> consumer) {
                         int col = pos.col, row = pos.row;
-                        for (Grid.Direction direction : Grid.Direction.getAll()) {
+                        for (Grid.Direction direction : directionsAll) {
                             int newCol = col + direction.dCol, newRow = row + direction.dRow;
                             if (cityGrid.hasPos(newCol, newRow)) {
-                                result.add(cityGrid.getPosition(newCol, newRow));
+                                CityGrid.Position nextPos = cityGrid.getPosition(newCol, newRow);
+                                consumer.accept(nextPos, scorer != null ? scorer.computeCost(pos, nextPos) : 0);
                             }
                         }
-                        return result;
                     }
                 }
             }
@@ -437,6 +651,166 @@ public class Day17 extends Day {
         }
     }
 
+    /**
+     * Minimal heat loss from every city grid cell to the target cell, for given run constraints.
+     * Computed by single reverse Dijkstra from the target over the same state space as in SolverAStar: position and axis of previous move,
+     * state id is also the same (position id * 2 + axis). Once computed, heat loss from any start cell is a lookup
+     * and optimal path is reconstructed in O(path length).
+     * Works on primitive arrays and reads only city grid cells, so many fields of one city grid can be computed in parallel.
+     */
+    private static class HeatLossField {
+        public static final int UNREACHABLE = Integer.MAX_VALUE;
+        private static final int NONE = -1;
+        private static final int AXIS_HORIZONTAL = 0, AXIS_VERTICAL = 1; // the same as SolverAStar.StateNode.Axis ordinals
+
+        private final CityGrid cityGrid;
+        private final int width;
+        private final int[] stateScore; // state id -> minimal heat loss to target
+        private final int[] stateNext; // state id -> next state on optimal path to target, NONE for target states
+        private final int[][] field; // [row][col] -> minimal heat loss to target starting at cell (any axis)
+
+        public HeatLossField(CityGrid cityGrid, int targetCol, int targetRow, int runMinimum, int runMaximum) {
+            this.cityGrid = cityGrid;
+            this.width = cityGrid.getWidth();
+            int height = cityGrid.getHeight();
+            int[] cells = new int[width * height];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    cells[row * width + col] = cityGrid.get(col, row);
+                }
+            }
+            stateScore = new int[2 * width * height];
+            stateNext = new int[2 * width * height];
+            Arrays.fill(stateScore, UNREACHABLE);
+            Arrays.fill(stateNext, NONE);
+            // binary heap with lazy deletion, entry is score in high half and state id in low half of long
+            long[] heap = new long[64];
+            int heapSize = 0;
+            int targetId = targetRow * width + targetCol;
+            for (int axis : new int[] { AXIS_HORIZONTAL, AXIS_VERTICAL }) {
+                stateScore[targetId * 2 + axis] = 0;
+                heap[heapSize++] = targetId * 2 + axis;
+            }
+            while (heapSize > 0) {
+                long entry = heap[0];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+                int score = (int)(entry >>> 32), state = (int)entry;
+                if (score > stateScore[state]) {
+                    continue; // stale entry
+                }
+                // previous state moved along axis of this state into this position, and had the other axis as its previous axis
+                int position = state >> 1, axis = state & 1;
+                int col = position % width, row = position / width;
+                for (int dir = -1; dir <= 1; dir += 2) {
+                    int dCol = axis == AXIS_HORIZONTAL ? dir : 0, dRow = axis == AXIS_VERTICAL ? dir : 0;
+                    int prevCol = col, prevRow = row, moveScore = 0;
+                    for (int runSteps = 1; runSteps <= runMaximum; runSteps++) {
+                        moveScore += cells[prevRow * width + prevCol]; // every cell entered by the move counts, not the one it started from
+                        prevCol -= dCol;
+                        prevRow -= dRow;
+                        if (prevCol < 0 || prevCol >= width || prevRow < 0 || prevRow >= height) {
+                            break;
+                        }
+                        if (runSteps < runMinimum) {
+                            continue;
+                        }
+                        int prevState = (prevRow * width + prevCol) * 2 + (axis ^ 1);
+                        int newScore = score + moveScore;
+                        if (newScore < stateScore[prevState]) {
+                            stateScore[prevState] = newScore;
+                            stateNext[prevState] = state;
+                            if (heapSize == heap.length) {
+                                heap = Arrays.copyOf(heap, heap.length * 2);
+                            }
+                            heap[heapSize++] = ((long)newScore << 32) | prevState;
+                            siftUp(heap, heapSize - 1);
+                        }
+                    }
+                }
+            }
+            field = new int[height][width];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int id = row * width + col;
+                    field[row][col] = Math.min(stateScore[id * 2 + AXIS_HORIZONTAL], stateScore[id * 2 + AXIS_VERTICAL]);
+                }
+            }
+        }
+
+        private static void siftUp(long[] heap, int i) {
+            long entry = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = entry;
+        }
+
+        private static void siftDown(long[] heap, int heapSize) {
+            if (heapSize == 0) {
+                return;
+            }
+            long entry = heap[0];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= entry) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = entry;
+        }
+
+        /** Returns minimal heat loss from given start cell to target, UNREACHABLE if there is no route */
+        public int getHeatLoss(int col, int row) {
+            return field[row][col];
+        }
+
+        /** Returns the whole field, indexed [row][col], must not be modified */
+        public int[][] getField() {
+            return field;
+        }
+
+        /** Returns optimal route from given start cell to target, as positions where the crucible turns (like SolverAStar route), null if there is no route */
+        public List<CityGrid.Position> getPath(int col, int row) {
+            int id = row * width + col;
+            int state = stateScore[id * 2 + AXIS_HORIZONTAL] <= stateScore[id * 2 + AXIS_VERTICAL] ? id * 2 + AXIS_HORIZONTAL : id * 2 + AXIS_VERTICAL;
+            if (stateScore[state] == UNREACHABLE) {
+                return null;
+            }
+            List<CityGrid.Position> path = new ArrayList<>();
+            for (; state != NONE; state = stateNext[state]) {
+                int position = state >> 1;
+                path.add(cityGrid.getPosition(position % width, position / width));
+            }
+            return path;
+        }
+    }
+
+    private static class SolverHeatLossField extends SolverBase {
+        @Override
+        protected long solve() {
+            int result = new HeatLossField(cityGrid, target.col, target.row, runMinimum, runMaximum).getHeatLoss(start.col, start.row);
+            if (result == HeatLossField.UNREACHABLE) {
+                throw new IllegalStateException("no route found");
+            }
+            return result;
+        }
+    }
+
     private static class SolverJKK extends SolverBase {
         private enum Direction {
             UNKNOWN(-1), DOWN(0), LEFT(1), UP(2), RIGHT(3);
@@ -831,6 +1205,316 @@ public class Day17 extends Day {
         }
     }
 
+    /**
+     * The same algorithm as SolverJKK, but on primitive arrays and with memoization of cells of the anti-diagonal running in parallel.
+     * Memo entries are kept in flat int arrays (score, next node id) indexed by the same key formula as in SolverJKK,
+     * every thread has its own pathfinder with bitset path markers and int array path.
+     * Cells of one anti-diagonal are memoized concurrently on ForkJoin common pool, each one reads memo of already processed
+     * diagonals and collects its own memo entries separately. Collected entries are merged (in cell order) after the whole
+     * anti-diagonal is done, so result does not depend on thread scheduling.
+     */
+    private static class SolverJKKParallel extends SolverBase {
+        private static final int NONE = -1;
+        private static final int DIR_UNKNOWN = -1, DIR_DOWN = 0, DIR_LEFT = 1, DIR_UP = 2, DIR_RIGHT = 3; // the same values as SolverJKK.Direction
+
+        private int width, height;
+        private int[] heatLoss; // node id -> city grid cell
+        private int memoSize;
+        private int[] memoScore, memoNext; // memo key -> score from node to target, next node id (NONE if no memo entry)
+        private SearchStatistics statistics;
+
+        private int memoKey(int lastDir, int lastStepsInTheSameDir, int nodeId) {
+            return lastDir + 4 * (lastStepsInTheSameDir - 1 + runMaximum * nodeId);
+        }
+
+        private record MemoEntries(int[] keys, int[] scores, int[] nexts) {}
+
+        @Override
+        protected long solve() {
+            if (cityGrid.getWidth() != cityGrid.getHeight()) {
+                throw new IllegalArgumentException("non square");
+            }
+            width = cityGrid.getWidth();
+            height = cityGrid.getHeight();
+            heatLoss = new int[cityGrid.getUniqueIdMax()];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    heatLoss[cityGrid.getUniqueId(col, row)] = cityGrid.get(col, row);
+                }
+            }
+            memoSize = 4 * runMaximum * cityGrid.getUniqueIdMax();
+            memoScore = new int[memoSize];
+            memoNext = new int[memoSize];
+            Arrays.fill(memoNext, NONE);
+            statistics = SearchStatistics.start("JKK bottom-up parallel");
+            memoAll();
+            Pathfinder pathfinder = new Pathfinder();
+            pathfinder.reset(start.id);
+            pathfinder.findPath(0, 0, 0, DIR_UNKNOWN);
+            if (statistics != null) {
+                statistics.mergeWorkers();
+            }
+            return pathfinder.bestScore;
+        }
+
+        private void memoAll() {
+            // idle pathfinders, one per thread working at a time, dropped with all their buffers when memoization ends
+            Queue<Pathfinder> pathfinders = new ConcurrentLinkedQueue<>();
+            // anti-diagonals from the one next to target up to the one next to start, cells ordered by column as in SolverJKK
+            for (int diagonalSum = 2 * (width - 1) - 1; diagonalSum > 0; diagonalSum--) {
+                final int sum = diagonalSum;
+                int colFirst = Math.max(0, sum - (height - 1)), colLast = Math.min(width - 1, sum);
+                List<MemoEntries> diagonalMemo = IntStream.rangeClosed(colFirst, colLast)
+                        .parallel()
+                        .mapToObj(col -> {
+                            Pathfinder pathfinder = pathfinders.poll();
+                            if (pathfinder == null) {
+                                pathfinder = new Pathfinder();
+                            }
+                            MemoEntries entries = pathfinder.memoAll(col, sum - col);
+                            pathfinders.add(pathfinder);
+                            return entries;
+                        })
+                        .toList();
+                diagonalMemo.forEach(this::memoMerge);
+            }
+        }
+
+        private void memoMerge(MemoEntries entries) {
+            // cells of one diagonal are solved in parallel and do not see memo entries of each other, unlike in sequential SolverJKK,
+            // so the same entry may come from several cells of the diagonal, keep the lower score
+            for (int i = 0; i < entries.keys.length; i++) {
+                int key = entries.keys[i];
+                if (memoNext[key] == NONE || memoScore[key] > entries.scores[i]) {
+                    memoScore[key] = entries.scores[i];
+                    memoNext[key] = entries.nexts[i];
+                }
+            }
+        }
+
+        private class Pathfinder {
+            private final long[] pathMarkers = new long[(cityGrid.getUniqueIdMax() + 63) >>> 6];
+            private final int[] path = new int[cityGrid.getUniqueIdMax()];
+            private int pathSize;
+            private int bestScore;
+            // memo entries found by this pathfinder, not yet merged into shared memo, open addressing table of keys touched while solving one cell
+            private int[] localSlotKeys = new int[1024];
+            private int[] localSlotScores = new int[1024];
+            private int[] localSlotNexts = new int[1024];
+            private int[] localKeys = new int[256]; // keys in order of insertion
+            private int localKeysCount;
+            private final int[] connectionsStack = new int[4 * cityGrid.getUniqueIdMax()]; // 4 per path position
+            private final int[] connectionOrder = new int[4];
+            private SearchStatistics workerStatistics;
+
+            public Pathfinder() {
+                Arrays.fill(localSlotKeys, NONE);
+            }
+
+            private void reset(int sourceId) {
+                workerStatistics = statistics != null ? statistics.ofWorker() : null; // pathfinder moves between pool threads, use worker of current one
+                path[0] = sourceId;
+                pathSize = 1;
+                pathMark(sourceId, true);
+                bestScore = Integer.MAX_VALUE;
+            }
+
+            public MemoEntries memoAll(int startCol, int startRow) {
+                int sourceId = cityGrid.getUniqueId(startCol, startRow);
+                reset(sourceId);
+                if (startCol != 0) {
+                    for (int steps = 1; steps <= runMaximum && startCol - steps >= 0; steps++) {
+                        pathMark(cityGrid.getUniqueId(startCol - steps, startRow), true);
+                        bestScore = Integer.MAX_VALUE;
+                        findPath(0, steps, 0, DIR_RIGHT);
+                    }
+                    for (int steps = 1; steps <= runMaximum && startCol - steps >= 0; steps++) {
+                        pathMark(cityGrid.getUniqueId(startCol - steps, startRow), false);
+                    }
+                }
+                if (startRow != 0) {
+                    for (int steps = 1; steps <= runMaximum && startRow - steps >= 0; steps++) {
+                        pathMark(cityGrid.getUniqueId(startCol, startRow - steps), true);
+                        bestScore = Integer.MAX_VALUE;
+                        findPath(0, 0, steps, DIR_DOWN);
+                    }
+                    for (int steps = 1; steps <= runMaximum && startRow - steps >= 0; steps++) {
+                        pathMark(cityGrid.getUniqueId(startCol, startRow - steps), false);
+                    }
+                }
+                pathMark(sourceId, false);
+                return drainLocalMemo();
+            }
+
+            private MemoEntries drainLocalMemo() {
+                int[] keys = Arrays.copyOf(localKeys, localKeysCount);
+                int[] scores = new int[localKeysCount], nexts = new int[localKeysCount];
+                for (int i = 0; i < localKeysCount; i++) {
+                    int slot = localSlot(keys[i]);
+                    scores[i] = localSlotScores[slot];
+                    nexts[i] = localSlotNexts[slot];
+                }
+                for (int i = 0; i < localKeysCount; i++) {
+                    localSlotKeys[localSlot(keys[i])] = NONE; // all keys are removed, no probe chain is left broken
+                }
+                localKeysCount = 0;
+                return new MemoEntries(keys, scores, nexts);
+            }
+
+            /** Slot of key in local memo table, or empty slot where key belongs */
+            private int localSlot(int key) {
+                int mask = localSlotKeys.length - 1;
+                int slot = (key * 0x9E3779B9) >>> 7 & mask;
+                while (localSlotKeys[slot] != NONE && localSlotKeys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                return slot;
+            }
+
+            private void localPut(int key, int score, int next) {
+                if (2 * (localKeysCount + 1) > localSlotKeys.length) {
+                    int[] oldScores = localSlotScores, oldNexts = localSlotNexts;
+                    int[] oldSlots = new int[localKeysCount];
+                    for (int i = 0; i < localKeysCount; i++) {
+                        oldSlots[i] = localSlot(localKeys[i]);
+                    }
+                    int capacity = 2 * localSlotKeys.length;
+                    localSlotKeys = new int[capacity];
+                    Arrays.fill(localSlotKeys, NONE);
+                    localSlotScores = new int[capacity];
+                    localSlotNexts = new int[capacity];
+                    for (int i = 0; i < localKeysCount; i++) {
+                        int slot = localSlot(localKeys[i]);
+                        localSlotKeys[slot] = localKeys[i];
+                        localSlotScores[slot] = oldScores[oldSlots[i]];
+                        localSlotNexts[slot] = oldNexts[oldSlots[i]];
+                    }
+                }
+                if (localKeysCount == localKeys.length) {
+                    localKeys = Arrays.copyOf(localKeys, localKeys.length * 2);
+                }
+                localKeys[localKeysCount++] = key;
+                int slot = localSlot(key);
+                localSlotKeys[slot] = key;
+                localSlotScores[slot] = score;
+                localSlotNexts[slot] = next;
+            }
+
+            private void findPath(int score, int stepsRows, int stepsCols, int lastDir) {
+                int current = path[pathSize - 1];
+                int memoKey = NONE;
+                if (lastDir != DIR_UNKNOWN) {
+                    memoKey = memoKey(lastDir, Math.max(stepsRows, stepsCols), current);
+                    int localSlot = localSlot(memoKey);
+                    int memoBestNext = NONE, memoBestScore = 0;
+                    if (localSlotKeys[localSlot] == memoKey) {
+                        memoBestNext = localSlotNexts[localSlot];
+                        memoBestScore = localSlotScores[localSlot];
+                    } else {
+                        memoBestNext = memoNext[memoKey];
+                        memoBestScore = memoScore[memoKey];
+                    }
+                    if (memoBestNext != NONE) {
+                        bestScore = Math.min(bestScore, score + memoBestScore);
+                        return;
+                    }
+                }
+                if (workerStatistics != null) {
+                    workerStatistics.expanded();
+                }
+                final int currCol = current % width;
+                final int currRow = current / width;
+                final int first = path[0];
+                final int diagonalSum = first % width + first / width - runMinimum; // see SolverJKK
+                final int[] connections = connectionsStack;
+                final int connectionsFirst = 4 * (pathSize - 1);
+                int connectionsCount = connectionsFirst;
+                if (stepsCols == 0 && stepsRows == 0 || stepsCols >= runMinimum || stepsRows >= 1) {
+                    if (currCol > 0 && !isPathMarked(current - 1) && stepsRows < runMaximum && diagonalSum <= currCol - 1 + currRow) {
+                        connections[connectionsCount++] = current - 1;
+                    }
+                    if (currCol < width - 1 && !isPathMarked(current + 1) && stepsRows < runMaximum && diagonalSum <= currCol + 1 + currRow) {
+                        connections[connectionsCount++] = current + 1;
+                    }
+                }
+                if (stepsCols == 0 && stepsRows == 0 || stepsRows >= runMinimum || stepsCols >= 1) {
+                    if (currRow > 0 && !isPathMarked(current - width) && stepsCols < runMaximum && diagonalSum <= currCol + currRow - 1) {
+                        connections[connectionsCount++] = current - width;
+                    }
+                    if (currRow < height - 1 && !isPathMarked(current + width) && stepsCols < runMaximum && diagonalSum <= currCol + currRow + 1) {
+                        connections[connectionsCount++] = current + width;
+                    }
+                }
+                // stable insertion sort, the same order as SolverJKK.Pathfinder.nodeComparator
+                for (int i = connectionsFirst; i < connectionsCount; i++) {
+                    int connection = connections[i];
+                    int order = 10 * (Math.abs(connection % width - target.col) + Math.abs(connection / width - target.row)) + heatLoss[connection];
+                    int j = i;
+                    while (j > connectionsFirst && connectionOrder[j - 1 - connectionsFirst] > order) {
+                        connections[j] = connections[j - 1];
+                        connectionOrder[j - connectionsFirst] = connectionOrder[j - 1 - connectionsFirst];
+                        j--;
+                    }
+                    connections[j] = connection;
+                    connectionOrder[j - connectionsFirst] = order;
+                }
+                int bestNode = NONE;
+                for (int ci = connectionsFirst; ci < connectionsCount; ci++) {
+                    int connection = connections[ci];
+                    if (workerStatistics != null) {
+                        workerStatistics.scanned();
+                    }
+                    int nextScore = score + heatLoss[connection];
+                    if (nextScore <= bestScore) { // less or equal to show equal score paths
+                        path[pathSize++] = connection;
+                        pathMark(connection, true);
+                        int nextStepsRows, nextStepsCols, nextDir;
+                        if (connection == current - 1 || connection == current + 1) {
+                            nextStepsRows = stepsRows + 1;
+                            nextStepsCols = 0;
+                            nextDir = connection > current ? DIR_RIGHT : DIR_LEFT;
+                        } else {
+                            nextStepsRows = 0;
+                            nextStepsCols = stepsCols + 1;
+                            nextDir = connection > current ? DIR_DOWN : DIR_UP;
+                        }
+                        if (connection == target.id) {
+                            if ((nextStepsCols == 0 && nextStepsRows >= runMinimum) ||
+                                    (nextStepsRows == 0 && nextStepsCols >= runMinimum)) {
+                                bestScore = nextScore;
+                                bestNode = connection;
+                            }
+                        } else {
+                            int savedBestScore = bestScore;
+                            findPath(nextScore, nextStepsRows, nextStepsCols, nextDir);
+                            if (bestScore < savedBestScore) {
+                                bestNode = connection;
+                            }
+                        }
+                        pathSize--;
+                        pathMark(connection, false);
+                    }
+                }
+                // memoization, entry cannot exist yet (memo hit returns early, current node is marked on path)
+                if (memoKey != NONE && bestNode != NONE) {
+                    localPut(memoKey, bestScore - score, bestNode);
+                }
+            }
+
+            private void pathMark(int id, boolean state) {
+                if (state) {
+                    pathMarkers[id >>> 6] |= 1L << id;
+                } else {
+                    pathMarkers[id >>> 6] &= ~(1L << id);
+                }
+            }
+
+            private boolean isPathMarked(int id) {
+                return (pathMarkers[id >>> 6] & (1L << id)) != 0;
+            }
+        }
+    }
+
     public static class Day17Test {
         @Nested
         public class Day17Test_AoCInputs {
@@ -854,6 +1538,46 @@ public class Day17 extends Day {
                 }
             }
 
+            @Nested
+            class Day17Test_AoCInputs_JKKParallel {
+                @Test
+                void solvePart1_sample() {
+                    solvePart1(SolverType.JKK_BOTTOMUP_PARALLEL, 102L, "_sample");
+                }
+                @Test
+                void solvePart1_main() {
+                    solvePart1(SolverType.JKK_BOTTOMUP_PARALLEL, 851L, "");
+                }
+                @Test
+                void solvePart2_sample() {
+                    solvePart2(SolverType.JKK_BOTTOMUP_PARALLEL, 94L, "_sample");
+                }
+                @Test
+                void solvePart2_main() {
+                    solvePart2(SolverType.JKK_BOTTOMUP_PARALLEL, 982L, "");
+                }
+            }
+
+            @Nested
+            class Day17Test_AoCInputs_ReverseDijkstraField {
+                @Test
+                void solvePart1_sample() {
+                    solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 102L, "_sample");
+                }
+                @Test
+                void solvePart1_main() {
+                    solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 851L, "");
+                }
+                @Test
+                void solvePart2_sample() {
+                    solvePart2(SolverType.REVERSE_DIJKSTRA_FIELD, 94L, "_sample");
+                }
+                @Test
+                void solvePart2_main() {
+                    solvePart2(SolverType.REVERSE_DIJKSTRA_FIELD, 982L, "");
+                }
+            }
+
             @Nested
             class Day17Test_AoCInputs_AStar {
                 @Test
@@ -873,57 +1597,187 @@ public class Day17 extends Day {
                     solvePart2(SolverType.ASTAR, 982L, "");
                 }
             }
+
+            @Nested
+            class Day17Test_AoCInputs_AStarBidirectional {
+                @Test
+                void solvePart1_sample() {
+                    solvePart1(SolverType.ASTAR_BIDIRECTIONAL, 102L, "_sample");
+                }
+                @Test
+                void solvePart1_main() {
+                    solvePart1(SolverType.ASTAR_BIDIRECTIONAL, 851L, "");
+                }
+                @Test
+                void solvePart2_sample() {
+                    solvePart2(SolverType.ASTAR_BIDIRECTIONAL, 94L, "_sample");
+                }
+                @Test
+                void solvePart2_main() {
+                    solvePart2(SolverType.ASTAR_BIDIRECTIONAL, 982L, "");
+                }
+            }
+
+            @Nested
+            class Day17Test_AoCInputs_DeltaStepping {
+                @Test
+                void solvePart1_sample() {
+                    solvePart1(SolverType.DELTA_STEPPING_STATE_GRAPH, 102L, "_sample");
+                }
+                @Test
+                void solvePart1_main() {
+                    solvePart1(SolverType.DELTA_STEPPING_STATE_GRAPH, 851L, "");
+                }
+                @Test
+                void solvePart2_sample() {
+                    solvePart2(SolverType.DELTA_STEPPING_STATE_GRAPH, 94L, "_sample");
+                }
+                @Test
+                void solvePart2_main() {
+                    solvePart2(SolverType.DELTA_STEPPING_STATE_GRAPH, 982L, "");
+                }
+            }
         }
         @Nested
         public class Day17Test_Cases {
             @Nested
             class Day17Test_Cases_sample_subset_10x10 {
                 @Test void test_sample_subset_10x10_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 94L, "_sample_subset_10x10"); }
+                @Test void test_sample_subset_10x10_JKKParallel() { solvePart1(SolverType.JKK_BOTTOMUP_PARALLEL, 94L, "_sample_subset_10x10"); }
                 @Test void test_sample_subset_10x10_ASTAR() { solvePart1(SolverType.ASTAR, 94L, "_sample_subset_10x10"); }
+                @Test void test_sample_subset_10x10_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 94L, "_sample_subset_10x10"); }
             }
             @Nested
             class Day17Test_Cases_test_2way_12x12 {
                 @Test void test_test_2way_12x12_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 94L, "_test_2way_12x12"); }
+                @Test void test_test_2way_12x12_JKKParallel() { solvePart1(SolverType.JKK_BOTTOMUP_PARALLEL, 94L, "_test_2way_12x12"); }
                 @Test void test_test_2way_12x12_ASTAR() { solvePart1(SolverType.ASTAR, 94L, "_test_2way_12x12"); }
+                @Test void test_test_2way_12x12_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 94L, "_test_2way_12x12"); }
             }
             @Nested
             class Day17Test_Cases_test_directionmatters {
                 @Test void test_test_directionmatters_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 9L, "_test_directionmatters"); }
+                @Test void test_test_directionmatters_JKKParallel() { solvePart1(SolverType.JKK_BOTTOMUP_PARALLEL, 9L, "_test_directionmatters"); }
                 @Test void test_test_directionmatters_ASTAR() { solvePart1(SolverType.ASTAR, 9L, "_test_directionmatters"); }
+                @Test void test_test_directionmatters_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 9L, "_test_directionmatters"); }
+                @Test void test_test_directionmatters_ASTAR_BIDIRECTIONAL() { solvePart1(SolverType.ASTAR_BIDIRECTIONAL, 9L, "_test_directionmatters"); }
+                @Test void test_test_directionmatters_DELTA() { solvePart1(SolverType.DELTA_STEPPING_STATE_GRAPH, 9L, "_test_directionmatters"); }
             }
             @Nested
             class Day17Test_Cases_test_blackhole_loopy_202x202 {
                 @Test void test_test_blackhole_loopy_202x202_ASTAR() { solvePart1(SolverType.ASTAR, 13518L, "_test_blackhole_loopy_202x202"); }
+                @Test void test_test_blackhole_loopy_202x202_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 13518L, "_test_blackhole_loopy_202x202"); }
+                @Test void test_test_blackhole_loopy_202x202_DIJKSTRA() { solvePart1(SolverType.DIJKSTRA_STATE_GRAPH, 13518L, "_test_blackhole_loopy_202x202"); }
+                @Test void test_test_blackhole_loopy_202x202_ASTAR_BIDIRECTIONAL() { solvePart1(SolverType.ASTAR_BIDIRECTIONAL, 13518L, "_test_blackhole_loopy_202x202"); }
+                @Test void test_test_blackhole_loopy_202x202_DELTA() { solvePart1(SolverType.DELTA_STEPPING_STATE_GRAPH, 13518L, "_test_blackhole_loopy_202x202"); }
             }
             @Nested
             class Day17Test_Cases_test_blackhole_loopy_7x7_harder {
                 @Test void test_test_blackhole_loopy_7x7_harder_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 28L, "_test_blackhole_loopy_7x7_harder"); }
                 @Test void test_test_blackhole_loopy_7x7_harder_ASTAR() { solvePart1(SolverType.ASTAR, 28L, "_test_blackhole_loopy_7x7_harder"); }
+                @Test void test_test_blackhole_loopy_7x7_harder_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 28L, "_test_blackhole_loopy_7x7_harder"); }
             }
             @Nested
             class Day17Test_Cases_test_blackhole_loopy_8x8_easier {
                 @Test void test_test_blackhole_loopy_8x8_easier_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 34L, "_test_blackhole_loopy_8x8_easier"); }
                 @Test void test_test_blackhole_loopy_8x8_easier_ASTAR() { solvePart1(SolverType.ASTAR, 34L, "_test_blackhole_loopy_8x8_easier"); }
+                @Test void test_test_blackhole_loopy_8x8_easier_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 34L, "_test_blackhole_loopy_8x8_easier"); }
             }
             @Nested
             class Day17Test_Cases_test_meandering_9x9 {
                 @Test void test_test_meandering_9x9_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 54L, "_test_meandering_9x9"); }
                 @Test void test_test_meandering_9x9_ASTAR() { solvePart1(SolverType.ASTAR, 54L, "_test_meandering_9x9"); }
+                @Test void test_test_meandering_9x9_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 54L, "_test_meandering_9x9"); }
             }
             @Nested
             class Day17Test_Cases_test_meandering_loopy_30x30 {
                 @Test void test_test_meandering_loopy_30x30_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 190L, "_test_meandering_loopy_30x30"); }
                 @Test void test_test_meandering_loopy_30x30_ASTAR() { solvePart1(SolverType.ASTAR, 190L, "_test_meandering_loopy_30x30"); }
+                @Test void test_test_meandering_loopy_30x30_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 190L, "_test_meandering_loopy_30x30"); }
+                @Test void test_test_meandering_loopy_30x30_ASTAR_BIDIRECTIONAL() { solvePart1(SolverType.ASTAR_BIDIRECTIONAL, 190L, "_test_meandering_loopy_30x30"); }
+                @Test void test_test_meandering_loopy_30x30_DELTA() { solvePart1(SolverType.DELTA_STEPPING_STATE_GRAPH, 190L, "_test_meandering_loopy_30x30"); }
             }
             @Nested
             class Day17Test_Cases_test_meandering_loopy_24x24_1 {
                 @Test void test_test_meandering_loopy_24x24_1_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 0L, "_test_meandering_loopy_24x24_1"); }
                 @Test void test_test_meandering_loopy_24x24_1_ASTAR() { solvePart1(SolverType.ASTAR, 0L, "_test_meandering_loopy_24x24_1"); }
+                @Test void test_test_meandering_loopy_24x24_1_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 0L, "_test_meandering_loopy_24x24_1"); }
             }
             @Nested
             class Day17Test_Cases_test_meandering_loopy_24x24_2 {
                 @Test void test_test_meandering_loopy_24x24_2_JKK() { solvePart1(SolverType.JKK_BOTTOMUP, 116L, "_test_meandering_loopy_24x24_2"); }
                 @Test void test_test_meandering_loopy_24x24_2_ASTAR() { solvePart1(SolverType.ASTAR, 116L, "_test_meandering_loopy_24x24_2"); }
+                @Test void test_test_meandering_loopy_24x24_2_FIELD() { solvePart1(SolverType.REVERSE_DIJKSTRA_FIELD, 116L, "_test_meandering_loopy_24x24_2"); }
+            }
+        }
+        @Test
+        void test_searchStatistics_AStarBidirectional() {
+            var day = new Day17("_main_subset_20x20");
+            day.parse();
+            SearchStatistics.setEnabled(true);
+            try {
+                SearchStatistics.drainCollected();
+                assertEquals(day.solvePart1_AStar(), day.solvePart1_AStarBidirectional());
+                List<SearchStatistics> statistics = SearchStatistics.drainCollected();
+                assertEquals(List.of("A*", "A* bidirectional"), statistics.stream().map(SearchStatistics::getSearchName).toList());
+                assertTrue(statistics.get(1).getExpandedNodes() < statistics.get(0).getExpandedNodes());
+            } finally {
+                SearchStatistics.setEnabled(false);
+            }
+        }
+        @Test
+        void test_searchStatistics_workerThreads() {
+            var day = new Day17("_main_subset_20x20");
+            day.parse();
+            SearchStatistics.setEnabled(true);
+            try {
+                SearchStatistics.drainCollected();
+                assertEquals(day.solve(SolverType.DELTA_STEPPING_STATE_GRAPH, 1, 3), day.solvePart1_JKKParallel());
+                List<SearchStatistics> statistics = SearchStatistics.drainCollected();
+                assertEquals(List.of("delta-stepping", "JKK bottom-up parallel"), statistics.stream().map(SearchStatistics::getSearchName).toList());
+                for (SearchStatistics searchStatistics : statistics) {
+                    assertTrue(searchStatistics.getExpandedNodes() > 0 && searchStatistics.getScannedEdges() > 0, searchStatistics.toString());
+                }
+            } finally {
+                SearchStatistics.setEnabled(false);
+            }
+        }
+        @Test
+        void test_crossValidate_sample() {
+            assertEquals(Map.of(1, 102L, 2, 94L), Day.crossValidate(() -> new Day17("_sample")));
+        }
+        @Test
+        void test_heatLossField_sample() {
+            var day = new Day17("_sample");
+            day.parse();
+            assertEquals(102L, day.solvePart1_Field());
+            assertEquals(94L, day.solvePart2_Field());
+            for (int[] run : new int[][] { { 1, 3 }, { 4, 10 } }) {
+                HeatLossField field = day.getHeatLossField(run[0], run[1]);
+                assertEquals(field, day.getHeatLossField(run[0], run[1])); // computed once per Day instance
+                CityGrid.Position target = day.cityGrid.getPosition(day.cityGrid.getWidth() - 1, day.cityGrid.getHeight() - 1);
+                for (int row = 0; row < day.cityGrid.getHeight(); row++) {
+                    for (int col = 0; col < day.cityGrid.getWidth(); col++) {
+                        CityGrid.Position start = day.cityGrid.getPosition(col, row);
+                        List<CityGrid.Position> path = field.getPath(col, row);
+                        if (path == null) {
+                            assertEquals(HeatLossField.UNREACHABLE, field.getHeatLoss(col, row));
+                            continue;
+                        }
+                        assertEquals(field.getHeatLoss(col, row), SolverType.ASTAR.getSolver().solve(day.cityGrid, run[0], run[1], start, target));
+                        int pathHeatLoss = 0;
+                        for (int pi = 1; pi < path.size(); pi++) {
+                            CityGrid.Position from = path.get(pi - 1), to = path.get(pi);
+                            int dCol = Integer.compare(to.col, from.col), dRow = Integer.compare(to.row, from.row);
+                            for (int c = from.col, r = from.row; c != to.col || r != to.row; ) {
+                                c += dCol;
+                                r += dRow;
+                                pathHeatLoss += day.cityGrid.get(c, r);
+                            }
+                        }
+                        assertEquals(field.getHeatLoss(col, row), pathHeatLoss);
+                    }
+                }
             }
         }
         static void solvePart1(SolverType solverType, long expectedResult, String inputSuffix) {
@@ -946,7 +1800,33 @@ public class Day17 extends Day {
         }
         void benchmark(String inputSuffix, Object expectedResult, int runMinimum, int runMaximum) {
             Day.benchmark(20, expectedResult, inputSuffix,
-                    List.of(SolverType.JKK_BOTTOMUP, SolverType.ASTAR),
+                    List.of(SolverType.JKK_BOTTOMUP, SolverType.JKK_BOTTOMUP_PARALLEL, SolverType.ASTAR, SolverType.REVERSE_DIJKSTRA_FIELD),
+                    (solverType) -> {
+                        Day17 day17 = new Day17(inputSuffix);
+                        day17.parse();
+                        return day17;
+                    },
+                    (day, solverType) -> day.solve(solverType, runMinimum, runMaximum),
+                    "run min %d max %d".formatted(runMinimum, runMaximum)
+            );
+        }
+    }
+    /** Full state graph searches on generated grid: Dijkstra over FibonacciHeap versus parallel delta-stepping */
+    public static class Day17Test_GraphSearchBenchmark {
+        @Test
+        void test_generated_1000x1000() {
+            // uniform costs 1-9
+            String inputSuffix = InputGenerators.getSuffix(1000 * 1000, 1.0 / 9, 17);
+            new Day17(inputSuffix).generateInput(inputSuffix, 1000 * 1000, 1.0 / 9, 17);
+            benchmark(inputSuffix, 1, 3);
+            benchmark(inputSuffix, 4, 10);
+        }
+        void benchmark(String inputSuffix, int runMinimum, int runMaximum) {
+            var dayExpected = new Day17(inputSuffix);
+            dayExpected.parse();
+            Object expectedResult = dayExpected.solve(SolverType.REVERSE_DIJKSTRA_FIELD, runMinimum, runMaximum);
+            Day.benchmark(3, expectedResult, inputSuffix,
+                    List.of(SolverType.DIJKSTRA_STATE_GRAPH, SolverType.DELTA_STEPPING_STATE_GRAPH),
                     (solverType) -> {
                         Day17 day17 = new Day17(inputSuffix);
                         day17.parse();
@@ -1,6 +1,7 @@
 package dev.aoc.aoc2023;
 
 import dev.aoc.common.*;
+import dev.aoc.common.graphsearch.SearchStatistics;
 import org.javatuples.Pair;
 import org.junit.jupiter.api.Test;
 
@@ -129,6 +130,7 @@ public class Day21 extends Day {
             // front.sort(PathHead::comparator);
             PriorityQueue<PathHead> front = new PriorityQueue<>(PathHead::comparator);
             front.addAll(pathHeads);
+            long heapOperations = pathHeads.size();
             for (PathHead pathHead : front) {
                 floodedGrid.set(pathHead.col, pathHead.row, pathHead.steps);
                 minSteps = Math.min(minSteps, pathHead.steps);
@@ -136,6 +138,7 @@ public class Day21 extends Day {
             }
             while (!front.isEmpty()) {
                 PathHead pos = front.poll();//.removeFirst();
+                heapOperations++;
                 minSteps = Math.min(minSteps, pos.steps);
                 maxSteps = Math.max(maxSteps, pos.steps);
                 for (Direction dir : dirs) {
@@ -156,8 +159,10 @@ public class Day21 extends Day {
                     }
                     floodedGrid.set(newPosCol, newPosRow, stepsAtNewPos);
                     front.add(new PathHead(stepsAtNewPos, newPosCol, newPosRow));
+                    heapOperations++;
                 }
             }
+            PartEvents.counter("flood heap operations", heapOperations);
             return floodWithStability(floodedGrid, minSteps, maxSteps, parent);
         }
         private FloodUnit floodWithStability(Grid<Integer> floodedGrid, int minSteps, int maxSteps, FloodUnit parent) {
@@ -415,16 +420,14 @@ public class Day21 extends Day {
             long countReachable = 0;
             Direction[] dirs = Direction.getAll();
             List<PathHead> front = new LinkedList<>();
-            int maxFrontSize = Integer.MIN_VALUE;
+            SearchStatistics statistics = SearchStatistics.start("plots front"); // peak open set is max front size
             int currentStep = 0;
             front.add(new PathHead(currentStep, startCol, startRow));
             Map<Long, Long> stepMapH = new HashMap<>();
             while (!front.isEmpty()) {
-                if (maxFrontSize < front.size()) {
-                    maxFrontSize = front.size();
-                    if (maxFrontSize % 1000000 == 0) {
-                        // System.out.printf("max front size %d%n", maxFrontSize);
-                    }
+                if (statistics != null) {
+                    statistics.openSetSize(front.size());
+                    statistics.expanded();
                 }
                 PathHead pos = front.removeFirst();
                 if (pos.steps != currentStep) {
@@ -450,6 +453,9 @@ public class Day21 extends Day {
                     stepMapH.put(hashKey, hashKey);
                     if (stepsAtNewPos < steps) {
                         front.addLast(new PathHead(stepsAtNewPos, newPosCol, newPosRow));
+                        if (statistics != null) {
+                            statistics.inserted(front.size());
+                        }
                     } else {
                         countReachable++;
                     }
@@ -530,6 +536,57 @@ public class Day21 extends Day {
         return plotCountReachableInSteps;
     }
 
+    /**
+     * Brute force verifier: BFS over the garden expanded by repeating the base grid in every direction as far as
+     * max steps can reach. Expanded garden and visited cells are bit grids outside the heap, only the BFS layers are on heap.
+     */
+    public long getPlotCountReachableInStepsBruteForce(int maxSteps) {
+        int width = gardenGrid.getWidth(), height = gardenGrid.getHeight();
+        int repeatsCol = Math.max(0, Math.ceilDiv(maxSteps - Math.min(gardenGrid.startCol, width - 1 - gardenGrid.startCol), width));
+        int repeatsRow = Math.max(0, Math.ceilDiv(maxSteps - Math.min(gardenGrid.startRow, height - 1 - gardenGrid.startRow), height));
+        long expandedWidth = (long)width * (2 * repeatsCol + 1), expandedHeight = (long)height * (2 * repeatsRow + 1);
+        if (expandedWidth > Integer.MAX_VALUE || expandedHeight > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("expanded garden %d x %d too large".formatted(expandedWidth, expandedHeight));
+        }
+        try (GridOffHeap garden = new GridOffHeap((int)expandedWidth, (int)expandedHeight, '.', '#');
+             GridOffHeap visited = new GridOffHeap((int)expandedWidth, (int)expandedHeight, '.', 'O')) {
+            for (int row = 0; row < garden.getHeight(); row++) {
+                for (int col = 0; col < garden.getWidth(); col++) {
+                    if (gardenGrid.is(col % width, row % height, '#')) {
+                        garden.setBit(col, row, true);
+                    }
+                }
+            }
+            Grid.Direction[] dirs = Grid.Direction.getAll();
+            int startCol = gardenGrid.startCol + repeatsCol * width, startRow = gardenGrid.startRow + repeatsRow * height;
+            long[] layer = { ((long)startCol << 32) | startRow };
+            int layerSize = 1;
+            visited.setBit(startCol, startRow, true);
+            long countReachable = 0;
+            for (int steps = 0; steps <= maxSteps && layerSize > 0; steps++) {
+                if ((steps & 1) == (maxSteps & 1)) {
+                    countReachable += layerSize; // cells reached in fewer steps of the same parity are reachable by going back and forth
+                }
+                long[] nextLayer = new long[4 * layerSize];
+                int nextLayerSize = 0;
+                for (int i = 0; i < layerSize; i++) {
+                    int col = (int)(layer[i] >>> 32), row = (int)layer[i];
+                    for (Grid.Direction dir : dirs) {
+                        int nextCol = col + dir.dCol, nextRow = row + dir.dRow;
+                        if (!garden.hasColumn(nextCol) || !garden.hasRow(nextRow) || garden.getBit(nextCol, nextRow) || visited.getBit(nextCol, nextRow)) {
+                            continue;
+                        }
+                        visited.setBit(nextCol, nextRow, true);
+                        nextLayer[nextLayerSize++] = ((long)nextCol << 32) | nextRow;
+                    }
+                }
+                layer = nextLayer;
+                layerSize = nextLayerSize;
+            }
+            return countReachable;
+        }
+    }
+
     public void debug() {
         IntStream.range(1, 501).forEach(maxSteps -> {
             System.out.printf("max steps %d%n", maxSteps);
@@ -1534,6 +1591,19 @@ public class Day21 extends Day {
             assertEquals(1002001L, day.getPlotCountReachableInSteps(1000).plotCountReachableInSteps);
         }
 
+        @Test
+        void bruteForce_sample() {
+            var day = new Day21("_sample_1x1maps");
+            day.parsePart2();
+            assertEquals(16L, day.getPlotCountReachableInStepsBruteForce(6));
+            assertEquals(6536L, day.getPlotCountReachableInStepsBruteForce(100));
+            assertEquals(668697L, day.getPlotCountReachableInStepsBruteForce(1000));
+            assertEquals(16733044L, day.getPlotCountReachableInStepsBruteForce(5000));
+            var dayTwoHead = new Day21("_sample_twohead_1x1maps");
+            dayTwoHead.parsePart2();
+            assertEquals(3839L, dayTwoHead.getPlotCountReachableInStepsBruteForce(94));
+        }
+
         @Test
         void solvePart1_sample() {
             var day = new Day21("_sample_1x1maps");
@@ -5,6 +5,11 @@ import dev.aoc.common.*;
 import org.javatuples.Triplet;
 import org.junit.jupiter.api.Test;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -12,7 +17,7 @@ import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-public class Day22 extends Day {
+public class Day22 extends Day implements ParseSnapshot {
     public Day22(String inputSuffix) {
         super(inputSuffix);
     }
@@ -21,7 +26,7 @@ public class Day22 extends Day {
         Day.run(() -> new Day22("")); // _sample
     }
 
-    /** ID of the brick is used for hashCode and equals, so keep it unique for different bricks and persist when mutating brick */
+    /** ID of the brick is used for hashCode and equals, so keep it unique for different bricks and persist when mutating brick. Bricks of input are numbered from 1 by their line, 0 is floor. */
     private record Brick(Triplet<Integer, Integer, Integer> start, Triplet<Integer, Integer, Integer> end, Integer id) {
         public Brick fall(int height) {
             return new Brick(new Triplet<>(getStartX(), getStartY(), getStartZ() - height), new Triplet<>(getEndX(), getEndY(), getEndZ() - height), id);
@@ -87,11 +92,10 @@ public class Day22 extends Day {
         public boolean isFloor() {
             return getStartZ() == 0;
         }
-        public static Brick parse(String s) {
+        public static Brick parse(String s, int id) {
             String[] parts = s.split("~");
-            return new Brick(parsePoint3D(parts[0]), parsePoint3D(parts[1]), brickId++);
+            return new Brick(parsePoint3D(parts[0]), parsePoint3D(parts[1]), id);
         }
-        private static int brickId = 1;
 
         private static Triplet<Integer, Integer, Integer> parsePoint3D(String s) {
             String[] parts = s.split(",");
@@ -136,7 +140,8 @@ public class Day22 extends Day {
         private final MinMaxBounds3D minMax;
 
         public BrickJenga(Stream<String> inputStream) {
-            List<Brick> inputBrickList = inputStream.map(Brick::parse).toList();
+            List<String> lines = inputStream.toList();
+            List<Brick> inputBrickList = IntStream.range(0, lines.size()).mapToObj(i -> Brick.parse(lines.get(i), i + 1)).toList(); // ids are unique within jenga, no state shared by instances
             // accept only stick-like bricks
             List<Brick> nonStickBricks = inputBrickList.stream().filter(brick -> !brick.isStick()).toList();
             if (!nonStickBricks.isEmpty()) {
@@ -163,12 +168,37 @@ public class Day22 extends Day {
             brickList = new ArrayList<>(Streams.concat(Arrays.stream(floorBrick), inputBrickList.stream()).toList());
         }
         public BrickJenga(BrickJenga that) {
-            this.brickList = new ArrayList<>(that.brickList);
+            this(new ArrayList<>(that.brickList));
+        }
+        private BrickJenga(List<Brick> brickList) {
+            this.brickList = brickList;
             // find min max of volume containing bricks
             this.minMax = new MinMaxBounds3D();
             calculateMinMax(minMax, this.brickList);
         }
 
+        /** Bricks (with floor) in current order, as id and coordinates */
+        public void writeSnapshot(DataOutput output) throws IOException {
+            output.writeInt(brickList.size());
+            for (Brick brick : brickList) {
+                output.writeInt(brick.id());
+                for (int coordinate : new int[] { brick.getStartX(), brick.getStartY(), brick.getStartZ(), brick.getEndX(), brick.getEndY(), brick.getEndZ() }) {
+                    output.writeInt(coordinate);
+                }
+            }
+        }
+        public static BrickJenga readSnapshot(DataInput input) throws IOException {
+            int size = input.readInt();
+            List<Brick> brickList = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int id = input.readInt();
+                var start = new Triplet<>(input.readInt(), input.readInt(), input.readInt());
+                var end = new Triplet<>(input.readInt(), input.readInt(), input.readInt());
+                brickList.add(new Brick(start, end, id));
+            }
+            return new BrickJenga(brickList);
+        }
+
         private static void calculateMinMax(MinMaxBounds3D minMax, List<Brick> brickList) {
             brickList.forEach(brick -> {
                 if (brick.isFloor()) {
@@ -381,6 +411,22 @@ public class Day22 extends Day {
         parse();
     }
 
+    @SolutionParser(partNumber = 1, solutionName = "settled snapshot", snapshot = true)
+    public void parsePart1_Settled() {
+        parse();
+        brickJenga.settle();
+    }
+
+    @SolutionSolver(partNumber = 1, solutionName = "settled snapshot")
+    public Object solvePart1_Settled() {
+        return (long)brickJenga.countSafeToDisintegrate();
+    }
+
+    @SolutionParser(partNumber = 2, solutionName = "settled snapshot", snapshot = true)
+    public void parsePart2_Settled() {
+        parsePart1_Settled();
+    }
+
     @SolutionSolver(partNumber = 2)
     public Object solvePart2() {
         brickJenga.settle();
@@ -388,6 +434,26 @@ public class Day22 extends Day {
         return result;
     }
 
+    @SolutionSolver(partNumber = 2, solutionName = "settled snapshot")
+    public Object solvePart2_Settled() {
+        return (long)brickJenga.countSumOfBricksFallingAfterEachBrickDisintegration();
+    }
+
+    @Override
+    public void writeSnapshot(int partNumber, String parserName, DataOutput output) throws IOException {
+        brickJenga.writeSnapshot(output);
+    }
+
+    @Override
+    public void readSnapshot(int partNumber, String parserName, DataInput input) throws IOException {
+        brickJenga = BrickJenga.readSnapshot(input);
+    }
+
+    @Override
+    public void resetSnapshot(int partNumber, String parserName) {
+        brickJenga = null;
+    }
+
 
     public static class Day22Test {
         @Test
@@ -411,6 +477,48 @@ public class Day22 extends Day {
             assertEquals(7L, day.solvePart2());
         }
 
+        @Test
+        void solveSettledSnapshot_sample() throws IOException {
+            Path snapshotPath = Path.of("inputs/2023/aoc_2023-22_sample.part2-settled_snapshot.snapshot");
+            Files.deleteIfExists(snapshotPath);
+            try {
+                var day = new Day22("_sample");
+                day.parseWithSnapshot(2, "settled snapshot", day::parsePart2_Settled);
+                assertEquals(7L, day.solvePart2_Settled());
+                var daySnapshot = new Day22("_sample");
+                daySnapshot.parseWithSnapshot(2, "settled snapshot", () -> { throw new IllegalStateException("snapshot not loaded"); });
+                assertEquals(5L, daySnapshot.solvePart1_Settled());
+                assertEquals(7L, daySnapshot.solvePart2_Settled());
+            } finally {
+                Files.deleteIfExists(snapshotPath);
+            }
+        }
+
+        @Test
+        void solveTruncatedSnapshot_sample() throws IOException {
+            Path snapshotPath = Path.of("inputs/2023/aoc_2023-22_sample.part2-settled_snapshot.snapshot");
+            Files.deleteIfExists(snapshotPath);
+            try {
+                var day = new Day22("_sample");
+                day.parseWithSnapshot(2, "settled snapshot", day::parsePart2_Settled);
+                byte[] snapshot = Files.readAllBytes(snapshotPath);
+                Files.write(snapshotPath, Arrays.copyOf(snapshot, snapshot.length - 10));
+                // truncated snapshot is stale, input is parsed again and snapshot rewritten
+                var dayTruncated = new Day22("_sample");
+                dayTruncated.parseWithSnapshot(2, "settled snapshot", dayTruncated::parsePart2_Settled);
+                assertEquals(7L, dayTruncated.solvePart2_Settled());
+                assertEquals(snapshot.length, Files.size(snapshotPath));
+            } finally {
+                Files.deleteIfExists(snapshotPath);
+            }
+        }
+
+        @Test
+        void crossValidate_sample() {
+            // every parser of both parts on its own instance, bricks must be numbered the same by each
+            assertEquals(Map.of(1, 5L, 2, 7L), Day.crossValidate(() -> new Day22("_sample")));
+        }
+
         @Test
         void solvePart2_main() {
             var day = new Day22("");
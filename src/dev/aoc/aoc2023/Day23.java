@@ -13,6 +13,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class Day23 extends Day {
     public Day23(String inputSuffix) {
@@ -160,24 +161,62 @@ public class Day23 extends Day {
         @Override
         public abstract Set<PathNode> getEdges(PathNode node);
     }
+    private static final Direction[] directionsAll = Direction.getAll();
     private class ForestWithoutSlopesGraph extends ForestGraph {
         @Override
         public Set<PathNode> getEdges(PathNode node) {
             HashSet<PathNode> results = new HashSet<>(4);
-            Arrays.stream(Direction.getAll()).forEach(dir -> {
+            forEachEdge(node, null, (nextNode, cost) -> results.add(nextNode));
+            return results;
+        }
+        @Override
+        public void forEachEdge(PathNode node, Scorer<PathNode> scorer, EdgeConsumer<PathNode> consumer) {
+            for (Direction dir : directionsAll) {
                 Grid.Direction gridDir = dir.toGridDirection();
                 int thatCol = node.col + gridDir.dCol, thatRow = node.row + gridDir.dRow;
                 if (!forestGrid.hasPos(thatCol, thatRow)) {
-                    return;
+                    continue;
                 }
                 char cell = forestGrid.get(thatCol, thatRow);
                 if (cell == '#') {
-                    return;
+                    continue;
                 }
-                results.add(new PathNode(thatCol, thatRow));
-            });
+                PathNode nextNode = new PathNode(thatCol, thatRow);
+                consumer.accept(nextNode, scorer != null ? scorer.computeCost(node, nextNode) : 0);
+            }
+        }
+    }
+    /** Forest where slopes can be entered only downhill, turning back is prevented by graph walkers (without direction in node) */
+    private class ForestWithSlopesUndirectedNodesGraph extends ForestGraph {
+        @Override
+        public Set<PathNode> getEdges(PathNode node) {
+            HashSet<PathNode> results = new HashSet<>(4);
+            forEachEdge(node, null, (nextNode, cost) -> results.add(nextNode));
             return results;
         }
+        @Override
+        public void forEachEdge(PathNode node, Scorer<PathNode> scorer, EdgeConsumer<PathNode> consumer) {
+            for (Direction dir : directionsAll) {
+                Grid.Direction gridDir = dir.toGridDirection();
+                int thatCol = node.col + gridDir.dCol, thatRow = node.row + gridDir.dRow;
+                if (!forestGrid.hasPos(thatCol, thatRow)) {
+                    continue;
+                }
+                char cell = forestGrid.get(thatCol, thatRow);
+                char disallowedSlope = switch (dir) {
+                    case RIGHT -> '<';
+                    case DOWN -> '^';
+                    case LEFT -> '>';
+                    case UP -> 'v';
+                    case UNKNOWN -> '.';
+                };
+                if (cell == '#' || cell == disallowedSlope) {
+                    continue;
+                }
+                PathNode nextNode = new PathNode(thatCol, thatRow);
+                consumer.accept(nextNode, scorer != null ? scorer.computeCost(node, nextNode) : 0);
+            }
+        }
     }
     private class NextPathNodeScorer implements Scorer<PathNode> {
         @Override
@@ -321,20 +360,25 @@ public class Day23 extends Day {
         @Override
         public Set<PathDirectedNode> getEdges(PathDirectedNode node) {
             HashSet<PathDirectedNode> results = new HashSet<>(4);
+            forEachEdge(node, null, (nextNode, cost) -> results.add(nextNode));
+            return results;
+        }
+        @Override
+        public void forEachEdge(PathDirectedNode node, Scorer<PathDirectedNode> scorer, EdgeConsumer<PathDirectedNode> consumer) {
             Direction nodeDir = node.direction;
             Direction noTurnBackDir = nodeDir.reverse();
-            Arrays.stream(Direction.getAll()).forEach(dir -> {
+            for (Direction dir : directionsAll) {
                 if (dir == noTurnBackDir) {
-                    return;
+                    continue;
                 }
                 Grid.Direction gridDir = dir.toGridDirection();
                 int thatCol = node.col + gridDir.dCol, thatRow = node.row + gridDir.dRow;
                 if (!forestGrid.hasPos(thatCol, thatRow)) {
-                    return;
+                    continue;
                 }
                 char cell = forestGrid.get(thatCol, thatRow);
                 if (cell == '#') {
-                    return;
+                    continue;
                 }
                 char disallowedSlope = switch (dir) {
                     case RIGHT -> '<';
@@ -344,7 +388,7 @@ public class Day23 extends Day {
                     case UNKNOWN -> '.';
                 };
                 if (cell == disallowedSlope) {
-                    return;
+                    continue;
                 }
                 // char allowedSlope = switch (dir) {
                 //     case RIGHT -> '>';
@@ -353,9 +397,9 @@ public class Day23 extends Day {
                 //     case UP -> '^';
                 //     case UNKNOWN -> '.';
                 // };
-                results.add(new PathDirectedNode(thatCol, thatRow, dir));
-            });
-            return results;
+                PathDirectedNode nextNode = new PathDirectedNode(thatCol, thatRow, dir);
+                consumer.accept(nextNode, scorer != null ? scorer.computeCost(node, nextNode) : 0);
+            }
         }
     }
     private class NextPathDirectedNodeScorer implements Scorer<PathDirectedNode> {
@@ -410,6 +454,41 @@ public class Day23 extends Day {
         return result;
     }
 
+    @SolutionSolver(partNumber = 1, solutionName = "topological")
+    public Object solvePart1_Topological() {
+        // with slopes enforced, contracted graph of crossings is directed and (for puzzle inputs) acyclic, longest path is found in linear time
+        ForestGraph forestGraph = new ForestWithSlopesUndirectedNodesGraph();
+        GraphCompressed<PathNode> crossingsGraph = compressCrossings(forestGraph);
+        try {
+            Pair<List<PathNode>, Long> routeWithScore = new RouteFinderLongestDAG<>(crossingsGraph, crossingsGraph.getScorer()).findRoute(forestGraph.start, forestGraph.end);
+            return routeWithScore.getValue1();
+        } catch (IllegalStateException e) {
+            System.out.printf("crossings graph is not acyclic, fallback to exhaustive search%n");
+        }
+        final long[] maxScore = { Long.MIN_VALUE };
+        RouteFinderDFS<PathNode> crossingsRouteFinder = new RouteFinderDFS<>(crossingsGraph, crossingsGraph.getScorer()) {
+            @Override
+            public FoundRouteDecision foundRoute(List<PathNode> route, long score) {
+                if (maxScore[0] < score) {
+                    maxScore[0] = score;
+                    return FoundRouteDecision.REMEMBER;
+                } else {
+                    return FoundRouteDecision.IGNORE;
+                }
+            }
+        };
+        return crossingsRouteFinder.findRoute(forestGraph.start, forestGraph.end).getValue1();
+    }
+
+    @SolutionSolver(partNumber = 1, solutionName = "array DFS")
+    public Object solvePart1_ArrayDFS() {
+        // exhaustive search of contracted graph of crossings, works also when crossings graph is not acyclic
+        ForestGraph forestGraph = new ForestWithSlopesUndirectedNodesGraph();
+        GraphCompressed<PathNode> crossingsGraph = compressCrossings(forestGraph);
+        Pair<List<PathNode>, Long> routeWithScore = new LongestRouteFinderDFSArray(crossingsGraph, crossingsGraph.getScorer()).findRoute(forestGraph.start, forestGraph.end);
+        return routeWithScore.getValue1();
+    }
+
     @SolutionParser(partNumber = 2)
     public void parsePart2() {
         parse();
@@ -418,45 +497,18 @@ public class Day23 extends Day {
     @SolutionSolver(partNumber = 2)
     public Object solvePart2() {
         // input is long stretches of corridors with small number of crossings (marked by slopes, which we ignore in part 2)
-        // find all crossings, use search from part 1 to iterate through all paths and create graph with nodes in crossings (plus start/end) and edges with weight of longest corridor between crossings
-        ForestGraph forestWithoutSlopesGraph = new ForestWithoutSlopesGraph();
-        Grid<Integer> forestConnDegree = forestGrid.map((coords, symbol) -> symbol == '#' ? 0 : forestWithoutSlopesGraph.getEdges(new PathDirectedNode(coords.getValue0(), coords.getValue1(), Direction.UNKNOWN)).size(), Integer.valueOf(0).getClass());
-        Set<PathNode> crossNodes = new HashSet<>();
-        crossNodes.add(forestWithoutSlopesGraph.start);
-        crossNodes.add(forestWithoutSlopesGraph.end);
-        forestConnDegree.forEach((coords, degree) -> {
-            if (degree > 2) {
-                PathNode node = new PathNode(coords.getValue0(), coords.getValue1());
-                crossNodes.add(node);
-            }
-        });
+        // contract corridors, create graph with nodes in crossings (plus start/end) and edges with weight of longest corridor between crossings
+        GraphCompressed<PathNode> compressedGraph = compressCrossings(new ForestWithoutSlopesGraph());
+        Set<PathNode> crossNodes = compressedGraph.getNodes();
         Map<Pair<PathNode, PathNode>, Integer> crossNodeDistances = new HashMap<>();
-        ForestDirectedGraph forestWithSlopesGraph = new ForestWithSlopesGraph();
-        // Grid<Character> routeHitMap = forestGrid.getClone();
-        RouteFinderDFS<PathDirectedNode> routeFinder = new RouteFinderDFS<>(forestWithSlopesGraph, new NextPathDirectedNodeScorer(), new TargetEstimatePathDirectedNodeScorer()) {
-            @Override
-            public FoundRouteDecision foundRoute(List<PathDirectedNode> routeDirected, long score) {
-                List<PathNode> route = routeDirected.stream().map(pdn -> new PathNode(pdn.col, pdn.row)).toList();
-                int firstIdx = 0;
-                PathNode firstNode = route.get(firstIdx);
-                for (int secondIdx = firstIdx + 1; secondIdx < route.size(); secondIdx++) {
-                    PathNode secondNode = route.get(secondIdx);
-                    // routeHitMap.set(secondNode.col, secondNode.row, 'O');
-                    if (!crossNodes.contains(secondNode)) {
-                        continue;
-                    }
-                    boolean isOrdered = firstNode.getId() < secondNode.getId();
-                    Pair<PathNode, PathNode> crossPair = new Pair<>(isOrdered ? firstNode : secondNode, isOrdered ? secondNode : firstNode);
-                    int crossDistance = secondIdx - firstIdx;
-                    crossNodeDistances.compute(crossPair, (key, previousDistance) -> previousDistance == null || previousDistance < crossDistance ? crossDistance : previousDistance);
-                    firstIdx = secondIdx;
-                    firstNode = secondNode;
-                }
-                return FoundRouteDecision.IGNORE; // doesn't matter
+        for (PathNode firstNode : crossNodes) {
+            for (PathNode secondNode : compressedGraph.getEdges(firstNode)) {
+                boolean isOrdered = firstNode.getId() < secondNode.getId();
+                Pair<PathNode, PathNode> crossPair = new Pair<>(isOrdered ? firstNode : secondNode, isOrdered ? secondNode : firstNode);
+                int crossDistance = (int) compressedGraph.getWeight(firstNode, secondNode);
+                crossNodeDistances.merge(crossPair, crossDistance, Math::max);
             }
-        };
-        routeFinder.findRoute(forestWithSlopesGraph.start, forestWithSlopesGraph.end);
-        // System.out.println(routeHitMap);
+        }
         CrossingsGraph crossingsGraph = new CrossingsGraph(crossNodes, crossNodeDistances);
         // optimize search: exploit the knowledge that to end node leads only one path from last crossing
         Set<PathNode> endNodeEdges = crossingsGraph.getEdges(crossingsGraph.end);
@@ -484,6 +536,49 @@ public class Day23 extends Day {
         return result;
     }
 
+    @SolutionSolver(partNumber = 2, solutionName = "array DFS")
+    public Object solvePart2_ArrayDFS() {
+        ForestGraph forestWithoutSlopesGraph = new ForestWithoutSlopesGraph();
+        GraphCompressed<PathNode> crossingsGraph = compressCrossings(forestWithoutSlopesGraph);
+        // optimize search: exploit the knowledge that to end node leads only one path from last crossing
+        Set<PathNode> endNodeEdges = crossingsGraph.getEdges(forestWithoutSlopesGraph.end);
+        if (endNodeEdges.size() != 1) {
+            throw new IllegalStateException("multiple ways to end point not supported");
+        }
+        PathNode penultimateToEndNode = endNodeEdges.iterator().next();
+        Pair<List<PathNode>, Long> routeWithScore = new LongestRouteFinderDFSArray(crossingsGraph, crossingsGraph.getScorer()).findRoute(forestWithoutSlopesGraph.start, penultimateToEndNode);
+        // add length of stretch from last crossing to end node
+        return routeWithScore.getValue1() + crossingsGraph.getWeight(penultimateToEndNode, forestWithoutSlopesGraph.end);
+    }
+
+    /** Contracts corridors of forest into graph of start, end and crossings (branching when slopes are ignored), weighted by corridor lengths */
+    private GraphCompressed<PathNode> compressCrossings(ForestGraph forestGraph) {
+        ForestGraph forestWithoutSlopesGraph = forestGraph instanceof ForestWithoutSlopesGraph ? forestGraph : new ForestWithoutSlopesGraph();
+        GraphCompressor<PathNode> compressor = new GraphCompressor<>(forestGraph, node ->
+                node.equals(forestGraph.start) || node.equals(forestGraph.end) || forestWithoutSlopesGraph.getEdges(node).size() > 2
+        );
+        return compressor.compress(forestGraph.start);
+    }
+
+    /** Array DFS engine remembering only routes longer than any found before */
+    private static class LongestRouteFinderDFSArray extends RouteFinderDFSArray<PathNode> {
+        private long maxScore = Long.MIN_VALUE;
+
+        public LongestRouteFinderDFSArray(Graph<PathNode> graph, Scorer<PathNode> nextNodeScorer) {
+            super(graph, nextNodeScorer, true);
+        }
+
+        @Override
+        public FoundRouteDecision foundRoute(List<PathNode> route, long score) {
+            if (maxScore < score) {
+                maxScore = score;
+                return FoundRouteDecision.REMEMBER;
+            } else {
+                return FoundRouteDecision.IGNORE;
+            }
+        }
+    }
+
     public static class Day23Test {
         @Test
         void solvePart1_sample() {
@@ -499,6 +594,42 @@ public class Day23 extends Day {
             assertEquals(2282L, day.solvePart1());
         }
 
+        @Test
+        void solvePart1_Topological_sample() {
+            var day = new Day23("_sample");
+            day.parsePart1();
+            assertEquals(94L, day.solvePart1_Topological());
+        }
+
+        @Test
+        void solvePart1_Topological_main() {
+            var day = new Day23("");
+            day.parsePart1();
+            assertEquals(2282L, day.solvePart1_Topological());
+        }
+
+        @Test
+        void solvePart1_Topological_cycleFallback() {
+            // slopes removed, every corridor is two-way, longest route search falls back to exhaustive search
+            var day = new Day23("_sample");
+            day.parse(day.stream().map(line -> line.replaceAll("[<>^v]", ".")).collect(Collectors.toList()));
+            assertEquals(154L, day.solvePart1_Topological());
+        }
+
+        @Test
+        void solvePart1_ArrayDFS_sample() {
+            var day = new Day23("_sample");
+            day.parsePart1();
+            assertEquals(94L, day.solvePart1_ArrayDFS());
+        }
+
+        @Test
+        void solvePart1_ArrayDFS_main() {
+            var day = new Day23("");
+            day.parsePart1();
+            assertEquals(2282L, day.solvePart1_ArrayDFS());
+        }
+
         @Test
         void solvePart2_sample() {
             var day = new Day23("_sample");
@@ -506,12 +637,62 @@ public class Day23 extends Day {
             assertEquals(154L, day.solvePart2());
         }
 
+        @Test
+        void compressForest_sample() {
+            var day = new Day23("_sample");
+            day.parse();
+            ForestGraph forestGraph = day.new ForestWithoutSlopesGraph();
+            GraphCompressed<PathNode> compressed = day.compressCrossings(forestGraph);
+            assertEquals(9, compressed.getNodes().size()); // start, end and 7 crossings detected by branching
+            PathNode crossing = day.new PathNode(3, 5);
+            assertEquals(15L, compressed.getWeight(forestGraph.start, crossing));
+            assertEquals(15L, compressed.getWeight(crossing, forestGraph.start));
+        }
+
         @Test
         void solvePart2_main() {
             var day = new Day23("");
             day.parsePart2();
             assertEquals(6646L, day.solvePart2());
         }
+
+        @Test
+        void solvePart2_ArrayDFS_sample() {
+            var day = new Day23("_sample");
+            day.parsePart2();
+            assertEquals(154L, day.solvePart2_ArrayDFS());
+        }
+
+        @Test
+        void solvePart2_ArrayDFS_main() {
+            var day = new Day23("");
+            day.parsePart2();
+            assertEquals(6646L, day.solvePart2_ArrayDFS());
+        }
+
+        @Test
+        void arrayDFS_branchAndBound_sample() {
+            var day = new Day23("_sample");
+            day.parse();
+            ForestGraph forestGraph = day.new ForestWithoutSlopesGraph();
+            GraphCompressed<PathNode> compressed = day.compressCrossings(forestGraph);
+            // bounds never cutting off better routes, results must match search without bound
+            long shortest = new RouteFinderDFSArray<>(compressed, compressed.getScorer(), false).findRoute(forestGraph.start, forestGraph.end).getValue1();
+            assertEquals(shortest, new RouteFinderDFSArray<>(compressed, compressed.getScorer(), (from, to) -> 0L, false).findRoute(forestGraph.start, forestGraph.end).getValue1());
+            // longest route from node to end ignoring nodes visited before never underestimates remaining score, yet it is tight
+            Map<PathNode, Long> longestToEnd = compressed.getNodes().stream().collect(Collectors.toMap(node -> node, node -> new RouteFinderDFSArray<>(compressed, compressed.getScorer(), true).findRoute(node, forestGraph.end).getValue1()));
+            SearchStatistics.setEnabled(true);
+            try {
+                SearchStatistics.drainCollected();
+                long longest = new RouteFinderDFSArray<>(compressed, compressed.getScorer(), true).findRoute(forestGraph.start, forestGraph.end).getValue1();
+                assertEquals(154L, longest);
+                assertEquals(longest, new RouteFinderDFSArray<>(compressed, compressed.getScorer(), (from, to) -> longestToEnd.get(from), true).findRoute(forestGraph.start, forestGraph.end).getValue1());
+                List<SearchStatistics> statistics = SearchStatistics.drainCollected();
+                assertTrue(statistics.get(1).getScannedEdges() < statistics.get(0).getScannedEdges(), statistics.toString());
+            } finally {
+                SearchStatistics.setEnabled(false);
+            }
+        }
     }
     public static class Day23Test_Benchmark {
         @Test
@@ -520,13 +701,13 @@ public class Day23 extends Day {
         }
         void benchmark(String inputSuffix, Object expectedResult) {
             Day.benchmark(5, expectedResult, inputSuffix,
-                    List.of("dummy"),
+                    List.of("default", "array DFS"),
                     (solverType) -> {
                         Day23 day17 = new Day23(inputSuffix);
                         day17.parse();
                         return day17;
                     },
-                    (day, solverType) -> day.solvePart2(),
+                    (day, solverType) -> solverType.equals("array DFS") ? day.solvePart2_ArrayDFS() : day.solvePart2(),
                     ""
             );
         }
@@ -1,16 +1,26 @@
 package dev.aoc.common;
 
+import com.google.common.hash.Hashing;
+import dev.aoc.common.graphsearch.SearchStatistics;
+import jdk.jfr.Recording;
 import org.javatuples.Pair;
 
 import java.io.*;
 import java.lang.reflect.Method;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -34,13 +44,19 @@ public abstract class Day {
     private final List<String> inputLines;
 
     private Day(String inputSuffix, List<String> inputLines) {
-        String className = getClass().toString();
-        Matcher matcher = Pattern.compile(".+?aoc(\\d+)\\.Day(\\d+).*").matcher(className);
-        if (!matcher.matches()) {
-            throw new RuntimeException("Could not match year-day to full class name: %s".formatted(className));
+        SolverRegistry registry = SolverRegistry.of(getClass());
+        if (registry != null) {
+            aocYear = registry.getYear();
+            aocDay = registry.getDay();
+        } else {
+            String className = getClass().toString();
+            Matcher matcher = Pattern.compile(".+?aoc(\\d+)\\.Day(\\d+).*").matcher(className);
+            if (!matcher.matches()) {
+                throw new RuntimeException("Could not match year-day to full class name: %s".formatted(className));
+            }
+            aocYear = parseInt(matcher.group(1));
+            aocDay = parseInt(matcher.group(2));
         }
-        aocYear = parseInt(matcher.group(1));
-        aocDay = parseInt(matcher.group(2));
         if (inputSuffix != null && inputLines != null) {
             throw new IllegalArgumentException("give either input suffix or input lines, not both");
         } else if (inputSuffix == null && inputLines == null) {
@@ -60,9 +76,107 @@ public abstract class Day {
 
     protected String getInputSuffix() { return inputSuffix != null ? inputSuffix : ""; }
 
+    protected int getAocYear() { return aocYear; }
+
+    protected int getAocDay() { return aocDay; }
+
     public static void run(Supplier<Day> dayFactory) {
+        if (Boolean.getBoolean("aoc.crossValidate")) {
+            crossValidate(dayFactory);
+            return;
+        }
+        if (Boolean.getBoolean("aoc.watch")) {
+            watch(dayFactory);
+            return;
+        }
+        runAll(dayFactory);
+    }
+    /** Runs all solutions, returns solving time per part and solver (cached results are left out) */
+    private static Map<String, Duration> runAll(Supplier<Day> dayFactory) {
+        Map<String, Duration> solvingTimes = new LinkedHashMap<>();
         Day instance = dayFactory.get(); // we need instance to get class and methods, will be used later
-        var dayClass = instance.getClass();
+        List<SolverRegistry.Solution> solutions = getSolutions(instance.getClass());
+        instance.showTitleAndPrefetchInput();
+        Recording recording = PartEvents.startRecording(instance.aocYear, instance.aocDay);
+        try {
+            for (SolverRegistry.Solution solution : solutions) {
+                if (instance == null) {
+                    instance = dayFactory.get();
+                }
+                PartAccounting.Usage solving = runSolution(solution, instance);
+                if (solving != null) {
+                    solvingTimes.put("part %d \"%s\"".formatted(solution.partNumber(), solution.solverName().trim().isEmpty() ? DEFAULT_NAME : solution.solverName()), solving.elapsed());
+                }
+                instance = null; // instance is spent
+            }
+        } finally {
+            PartEvents.stopRecording(recording);
+            if (ResultCache.isEnabled()) {
+                ResultCache.flush();
+            }
+        }
+        return solvingTimes;
+    }
+
+    /**
+     * Runs day, then keeps JVM (and its compiled code) alive and runs the day again whenever its input file changes,
+     * until interrupted. After each iteration solving times are reported with best and median over iterations, so
+     * steady state of JIT compiled code shows up instead of cold start. Day.run watches with -Daoc.watch=true
+     */
+    public static void watch(Supplier<Day> dayFactory) {
+        Day probe = dayFactory.get();
+        if (probe.inputLines != null) {
+            throw new IllegalArgumentException("day with input given as lines has no input file to watch");
+        }
+        Path inputPath = probe.getInputPath().toAbsolutePath();
+        Map<String, List<Duration>> history = new LinkedHashMap<>();
+        try (WatchService watchService = inputPath.getFileSystem().newWatchService()) {
+            inputPath.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            for (int iteration = 1; ; iteration++) {
+                System.out.printf("### Watch iteration %d of %s%n%n", iteration, inputPath.getFileName());
+                try {
+                    runAll(dayFactory).forEach((solution, solving) -> history.computeIfAbsent(solution, s -> new ArrayList<>()).add(solving));
+                    System.out.printf("### Watch iteration %d solving times:%n", iteration);
+                    history.forEach((solution, solvings) -> {
+                        List<Duration> sorted = solvings.stream().sorted().toList();
+                        System.out.printf("###     %s: last %s, best %s, median %s of %d runs%n", solution, solvings.getLast(), sorted.getFirst(), sorted.get(sorted.size() / 2), sorted.size());
+                    });
+                } catch (RuntimeException e) {
+                    // input may be edited in the middle, wait for the next change
+                    System.out.printf("### Watch iteration %d failed: %s%n", iteration, e);
+                }
+                System.out.printf("%n### Watching %s for changes...%n", inputPath);
+                awaitChange(watchService, inputPath.getFileName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    private static void awaitChange(WatchService watchService, Path fileName) throws InterruptedException {
+        boolean isChanged = false;
+        while (!isChanged) {
+            WatchKey key = watchService.take();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                isChanged |= fileName.equals(event.context());
+            }
+            key.reset();
+        }
+        // let writer finish, editors and generators write in several steps
+        Thread.sleep(200);
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+    static List<SolverRegistry.Solution> getSolutions(Class<? extends Day> dayClass) {
+        SolverRegistry registry = SolverRegistry.of(dayClass);
+        return registry != null ? registry.getSolutions() : findSolutions(dayClass);
+    }
+    /** Solutions of annotated methods found by reflection, when there is no generated registry */
+    private static List<SolverRegistry.Solution> findSolutions(Class<? extends Day> dayClass) {
         var declaredMethods = dayClass.getDeclaredMethods();
         var parsers = Arrays.stream(declaredMethods).filter(m -> m.isAnnotationPresent(SolutionParser.class)).toList();
         var solvers = Arrays.stream(declaredMethods).filter(m -> m.isAnnotationPresent(SolutionSolver.class)).toList();
@@ -74,39 +188,135 @@ public abstract class Day {
         if (parts.isEmpty()) {
             throw new IllegalArgumentException("no annotated methods found");
         }
-        instance.showTitleAndPrefetchInput();
+        List<SolverRegistry.Solution> solutions = new ArrayList<>();
         for (int partNumber : parts) {
             var partElementsPerName = getPartElementsPerName(partNumber, parsersPerPart, solversPerPart);
             if (partElementsPerName == null) {
                 continue;
             }
             for (var entry : partElementsPerName.entrySet()) {
-                if (instance == null) {
-                    instance = dayFactory.get();
+                Method parser = entry.getValue().getValue0();
+                Method solver = entry.getValue().getValue1();
+                solutions.add(new SolverRegistry.Solution(
+                        partNumber,
+                        parser.getDeclaredAnnotation(SolutionParser.class).solutionName(),
+                        solver.getDeclaredAnnotation(SolutionSolver.class).solutionName(),
+                        parser.getDeclaredAnnotation(SolutionParser.class).snapshot(),
+                        day -> {
+                            try {
+                                parser.invoke(day);
+                            } catch (ReflectiveOperationException e) {
+                                throw new RuntimeException(e);
+                            }
+                        },
+                        day -> {
+                            try {
+                                return solver.invoke(day);
+                            } catch (ReflectiveOperationException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                ));
+            }
+        }
+        return solutions;
+    }
+    private record CrossResult(SolverRegistry.Solution solution, Object result, Duration parsing, Duration solving) {}
+
+    /**
+     * Runs all solvers of each part at once, each on its own instance and compares their results. Instances are parsed one
+     * after another (independently, without snapshots) before solving, since parsers may share static state. First mismatch or failure stops the part (other solutions are interrupted) with exception,
+     * otherwise ranking by solving time is printed. Solutions compete for cores, so timings are only indicative.
+     * Day.run does this instead of normal run with system property -Daoc.crossValidate=true
+     * @return agreed result per part
+     */
+    public static Map<Integer, Object> crossValidate(Supplier<Day> dayFactory) {
+        Day instance = dayFactory.get();
+        var solutionsPerPart = getSolutions(instance.getClass()).stream().collect(Collectors.groupingBy(SolverRegistry.Solution::partNumber, TreeMap::new, Collectors.toList()));
+        instance.showTitleAndPrefetchInput();
+        Map<Integer, Object> agreedResults = new TreeMap<>();
+        for (var partSolutions : solutionsPerPart.entrySet()) {
+            int partNumber = partSolutions.getKey();
+            List<CrossResult> results = crossValidatePart(dayFactory, partNumber, partSolutions.getValue());
+            if (results.isEmpty()) {
+                System.out.printf("### Part %d cross-validation: no solver finished%n%n", partNumber);
+                continue;
+            }
+            Object agreedResult = results.getFirst().result();
+            agreedResults.put(partNumber, agreedResult);
+            Duration slowest = results.getLast().solving();
+            System.out.printf("### Part %d cross-validation: %d solvers agree on result: %n%s%n", partNumber, results.size(), agreedResult);
+            for (int rank = 0; rank < results.size(); rank++) {
+                CrossResult result = results.get(rank);
+                System.out.printf("### %2d. solver \"%s\": solved [elapsed: %s, parsed in %s], %.2fx faster than slowest%n", rank + 1, result.solution().solverName(), result.solving(), result.parsing(), (double)slowest.toNanos() / Math.max(1, result.solving().toNanos()));
+            }
+            System.out.println();
+        }
+        return agreedResults;
+    }
+    /** Results of part ranked by solving time, unfinished solutions (null result) are left out */
+    private static List<CrossResult> crossValidatePart(Supplier<Day> dayFactory, int partNumber, List<SolverRegistry.Solution> solutions) {
+        ExecutorService executor = Executors.newFixedThreadPool(solutions.size(), runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true); // solver ignoring interruption must not keep JVM alive after mismatch
+            return thread;
+        });
+        CompletionService<CrossResult> completion = new ExecutorCompletionService<>(executor);
+        try {
+            List<Day> days = new ArrayList<>(solutions.size());
+            List<Duration> parsings = new ArrayList<>(solutions.size());
+            for (SolverRegistry.Solution solution : solutions) {
+                Day day = dayFactory.get();
+                long start = System.nanoTime();
+                solution.parser().accept(day);
+                parsings.add(Duration.ofNanos(System.nanoTime() - start));
+                days.add(day);
+            }
+            for (int i = 0; i < solutions.size(); i++) {
+                SolverRegistry.Solution solution = solutions.get(i);
+                Day day = days.get(i);
+                Duration parsing = parsings.get(i);
+                completion.submit(() -> {
+                    long start = System.nanoTime();
+                    Object result = solution.solver().apply(day);
+                    return new CrossResult(solution, result, parsing, Duration.ofNanos(System.nanoTime() - start));
+                });
+            }
+            List<CrossResult> results = new ArrayList<>();
+            for (int i = 0; i < solutions.size(); i++) {
+                CrossResult result = completion.take().get();
+                if (result.result() == null) {
+                    System.out.printf("### Part %d, solver \"%s\": solver UNFINISHED%n", partNumber, result.solution().solverName());
+                    continue;
                 }
-                runParserSolver(partNumber, entry.getValue().getValue0(), entry.getValue().getValue1(), instance);
-                instance = null; // instance is spent
+                if (!results.isEmpty() && !String.valueOf(result.result()).equals(String.valueOf(results.getFirst().result()))) {
+                    throw new IllegalStateException("part %d results mismatch: solver \"%s\" result %s, solver \"%s\" result %s".formatted(
+                            partNumber, results.getFirst().solution().solverName(), results.getFirst().result(), result.solution().solverName(), result.result()
+                    ));
+                }
+                results.add(result);
             }
+            results.sort(Comparator.comparing(CrossResult::solving));
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("part %d solution failed".formatted(partNumber), e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
-    private static void runParserSolver(int partNumber, Method parser, Method solver, Day instance) {
-        instance.runPart(
-                () -> {
-                    try {
-                        parser.invoke(instance);
-                    } catch (ReflectiveOperationException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                parser.getDeclaredAnnotation(SolutionParser.class).solutionName(),
-                () -> {
-                    try {
-                        return solver.invoke(instance);
-                    } catch (ReflectiveOperationException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                solver.getDeclaredAnnotation(SolutionSolver.class).solutionName(),
+
+    private static PartAccounting.Usage runSolution(SolverRegistry.Solution solution, Day instance) {
+        int partNumber = solution.partNumber();
+        String parserName = solution.parserName();
+        Runnable parserRunnable = () -> solution.parser().accept(instance);
+        return instance.runPart(
+                solution.snapshot() ? () -> instance.parseWithSnapshot(partNumber, parserName, parserRunnable) : parserRunnable,
+                parserName,
+                () -> solution.solver().apply(instance),
+                solution.solverName(),
                 partNumber
         );
     }
@@ -127,6 +337,7 @@ public abstract class Day {
         }
         var partSolversPerName = partSolvers.stream().collect(Collectors.groupingBy(m -> m.getDeclaredAnnotation(SolutionSolver.class).solutionName()));
         var partElementsPerName = new HashMap<String, Pair<Method, Method>>();
+        var defaultParsers = partParsersPerName.getOrDefault(DEFAULT_NAME, List.of()); // kept aside, default solver removes its parser below
         boolean defaultParserUsed = false;
         for (String solverName : partSolversPerName.keySet()) {
             // get singular solver for current name
@@ -139,7 +350,6 @@ public abstract class Day {
             var parsersOfName = partParsersPerName.get(solverName);
             Method parser;
             if (parsersOfName == null || parsersOfName.isEmpty()) {
-                var defaultParsers = partParsersPerName.get(DEFAULT_NAME);
                 if (defaultParsers.isEmpty()) {
                     throw new IllegalArgumentException("part %d default parser missing for name %s".formatted(partNumber, solverName));
                 } else if (defaultParsers.size() > 1) {
@@ -163,30 +373,129 @@ public abstract class Day {
         return partElementsPerName;
     }
 
+    private static final int SNAPSHOT_MAGIC = 0x414F4353; // "AOCS"
+
+    /**
+     * Runs parser, unless there is snapshot of parsed structures for the same input (and snapshot version), which is
+     * loaded instead by single read. Snapshot is written after parsing, to temporary file moved in place atomically.
+     * Snapshot that cannot be read (truncated or corrupt) is treated as stale: state is reset and input parsed again.
+     * Day must implement ParseSnapshot, days with input given as lines are always parsed.
+     */
+    public void parseWithSnapshot(int partNumber, String parserName, Runnable parser) {
+        if (!(this instanceof ParseSnapshot snapshotable)) {
+            throw new IllegalStateException("%s does not implement ParseSnapshot".formatted(getClass().getSimpleName()));
+        }
+        if (inputLines != null) {
+            parser.run();
+            return;
+        }
+        Path snapshotPath = getSnapshotPath(partNumber, parserName);
+        byte[] inputHash = Hashing.sha256().hashBytes(inputBytes()).asBytes();
+        if (Files.exists(snapshotPath)) {
+            try {
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshotPath)));
+                byte[] snapshotInputHash = new byte[inputHash.length];
+                if (input.readInt() == SNAPSHOT_MAGIC && input.readInt() == snapshotable.getSnapshotVersion()) {
+                    input.readFully(snapshotInputHash);
+                    if (Arrays.equals(inputHash, snapshotInputHash)) {
+                        snapshotable.readSnapshot(partNumber, parserName, input);
+                        System.out.printf("### Part %d, parser \"%s\": loaded snapshot %s%n", partNumber, parserName, snapshotPath);
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.printf("*** Part %d, parser \"%s\": could not read snapshot %s (%s), parsing input%n", partNumber, parserName, snapshotPath, e);
+                snapshotable.resetSnapshot(partNumber, parserName);
+            }
+        }
+        parser.run();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(snapshotable.getSnapshotVersion());
+            output.write(inputHash);
+            snapshotable.writeSnapshot(partNumber, parserName, output);
+            output.flush();
+            Path temporaryPath = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString() + ".", ".snapshot");
+            try {
+                Files.write(temporaryPath, bytes.toByteArray());
+                Files.move(temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write snapshot %s".formatted(snapshotPath), e);
+        }
+    }
+
+    private Path getSnapshotPath(int partNumber, String parserName) {
+        String inputFilename = getInputPath().getFileName().toString();
+        String snapshotFilename = "%s.part%d-%s.snapshot".formatted(inputFilename.replaceFirst("\\.txt(\\.gz)?$", ""), partNumber, parserName.replaceAll("[^A-Za-z0-9]+", "_"));
+        return getInputPath().resolveSibling(snapshotFilename);
+    }
+
     private void showTitleAndPrefetchInput() {
+        Path filePath = getInputPath();
+        if (isCompressed(filePath)) {
+            // inflating whole input just to show its size would cost as much as parsing it, size on disk is shown instead
+            ensureFileAvailable(filePath);
+            long compressedSize;
+            try {
+                compressedSize = Files.size(filePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            System.out.printf("### Advent of Code %d day %02d, input \"%s\" compressed size %d%n%n", aocYear, aocDay, inputSuffix, compressedSize);
+            return;
+        }
         String prefetchInput = inputString();
         System.out.printf("### Advent of Code %d day %02d, input \"%s\" size %d%n%n", aocYear, aocDay, inputSuffix, prefetchInput.length());
     }
 
     private static final String DEFAULT_NAME = "default";
 
-    private void runPart(Runnable parser, String parserName, Supplier<Object> solver, String solverName, int partNumber) {
+    /** Returns usage of solving, null for cached result */
+    private PartAccounting.Usage runPart(Runnable parser, String parserName, Supplier<Object> solver, String solverName, int partNumber) {
         parserName = parserName.trim().isEmpty() ? DEFAULT_NAME : parserName;
+        solverName = solverName.trim().isEmpty() ? DEFAULT_NAME : solverName;
+        String cacheKey = null;
+        if (ResultCache.isEnabled() && inputLines == null) {
+            cacheKey = ResultCache.key(aocYear, aocDay, inputBytes(), getClass(), partNumber, parserName, solverName);
+            ResultCache.Entry cached = ResultCache.get(cacheKey);
+            if (cached != null) {
+                System.out.printf("### Part %d, solver \"%s\": solved [cached, parsed in %s, elapsed: %s, peak heap %d MB]: %n%s%n%n", partNumber, solverName, cached.parsing(), cached.solving(), cached.peakHeapBytes() >> 20, cached.result());
+                return null;
+            }
+        }
         System.out.printf("### Part %d, parser \"%s\": parsing...%n", partNumber, parserName);
-        Instant parsingStart = Instant.now();
+        PartEvents.PartParse parseEvent = PartEvents.beginParse(aocYear, aocDay, partNumber, parserName, getInputSuffix());
+        PartAccounting parsingAccounting = PartAccounting.start();
         parser.run();
-        Instant parsingFinish = Instant.now();
-        System.out.printf("### Part %d, parser \"%s\": parsed [elapsed: %s]%n", partNumber, parserName, Duration.between(parsingStart, parsingFinish).toString());
-        solverName = solverName.trim().isEmpty() ? DEFAULT_NAME : solverName;
+        PartAccounting.Usage parsing = parsingAccounting.finish();
+        parseEvent.commit();
+        System.out.printf("### Part %d, parser \"%s\": parsed [%s]%n", partNumber, parserName, parsing);
         System.out.printf("### Part %d, solver \"%s\": solving...%n", partNumber, solverName);
-        Instant solvingStart = Instant.now();
+        SearchStatistics.drainCollected(); // report only searches of this solver
+        PartEvents.PartSolve solveEvent = PartEvents.beginSolve(aocYear, aocDay, partNumber, solverName, getInputSuffix());
+        PartAccounting solvingAccounting = PartAccounting.start();
         Object partResult = solver.get();
-        Instant solvingFinish = Instant.now();
+        PartAccounting.Usage solving = solvingAccounting.finish();
+        for (SearchStatistics searchStatistics : SearchStatistics.drainCollected()) {
+            System.out.printf("### Part %d, solver \"%s\": search statistics %s%n", partNumber, solverName, searchStatistics);
+            PartEvents.counters(searchStatistics.getSearchName() + " ", searchStatistics.asMap());
+        }
+        PartEvents.endSolve(solveEvent, partResult);
+        if (cacheKey != null && partResult != null) {
+            ResultCache.put(cacheKey, partResult, parsing.elapsed(), solving.elapsed(), Math.max(parsing.peakHeapBytes(), solving.peakHeapBytes()));
+        }
+        PartAccounting.appendJsonLine(PartAccounting.toJsonLine(aocYear, aocDay, getInputSuffix(), partNumber, parserName, solverName, parsing, solving));
         if (partResult != null) {
-            System.out.printf("### Part %d, solver \"%s\": solved [elapsed: %s]: %n%s%n%n", partNumber, solverName, Duration.between(solvingStart, solvingFinish).toString(), partResult);
+            System.out.printf("### Part %d, solver \"%s\": solved [%s]: %n%s%n%n", partNumber, solverName, solving, partResult);
         } else {
             System.out.printf("### Part %d, solver \"%s\": solver UNFINISHED%n%n", partNumber, solverName);
         }
+        return solving;
     }
 
     public static <T, U> void benchmark(int cycles, Object expectedResult, String inputSuffix, List<U> solverTypes, Function<U, T> dayFactory, BiFunction<T, U, Object> solveMethod, String paramsDescription) {
@@ -234,15 +543,53 @@ public abstract class Day {
     public Stream<String> inputStream() {
         Path filePath = getInputPath();
         ensureFileAvailable(filePath);
+        if (isCompressed(filePath)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(openCompressed(filePath), StandardCharsets.UTF_8), 1 << 16);
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
         return AoCUtil.readFileAsStreamOfLines(filePath);
     }
 
     public String inputString() {
         Path filePath = getInputPath();
         ensureFileAvailable(filePath);
+        if (isCompressed(filePath)) {
+            return new String(readCompressed(filePath), defaultCharset());
+        }
         return readFileAsString(filePath.toFile());
     }
 
+    public byte[] inputBytes() {
+        Path filePath = getInputPath();
+        ensureFileAvailable(filePath);
+        if (isCompressed(filePath)) {
+            return readCompressed(filePath);
+        }
+        return readFileAsBytes(filePath);
+    }
+
+    /** Input as read-only grid over bytes of input, without copying of lines */
+    public GridOfCharsView inputGridView() {
+        return new GridOfCharsView(inputBytes());
+    }
+
+    /** Input as buffered stream of bytes, for parsers streaming over large inputs */
+    public InputStream inputByteStream() {
+        Path filePath = getInputPath();
+        ensureFileAvailable(filePath);
+        try {
+            return new BufferedInputStream(isCompressed(filePath) ? new ThreadedGzipInputStream(filePath) : Files.newInputStream(filePath), 1 << 16);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s".formatted(filePath));
+        }
+    }
+
     private void ensureFileAvailable(Path filePath) {
         if (!Files.exists(filePath)) {
             if (!inputSuffix.isEmpty()) {
@@ -253,9 +600,32 @@ public abstract class Day {
         }
     }
 
+    /** Path of input file, or of its gzip variant (name with .gz added) when only that one exists */
     private Path getInputPath() {
         String filename = getInputPath(inputSuffix);
-        return Path.of("inputs/%d/%s".formatted(aocYear, filename));
+        Path filePath = Path.of("inputs/%d/%s".formatted(aocYear, filename));
+        Path compressedPath = filePath.resolveSibling(filename + ".gz");
+        return !Files.exists(filePath) && Files.exists(compressedPath) ? compressedPath : filePath;
+    }
+
+    private static boolean isCompressed(Path filePath) {
+        return filePath.getFileName().toString().endsWith(".gz");
+    }
+
+    private static InputStream openCompressed(Path filePath) {
+        try {
+            return new ThreadedGzipInputStream(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s".formatted(filePath), e);
+        }
+    }
+
+    private static byte[] readCompressed(Path filePath) {
+        try (InputStream input = openCompressed(filePath)) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s".formatted(filePath), e);
+        }
     }
 
     protected String getInputPath(String fileSuffix) {
@@ -304,6 +674,14 @@ public abstract class Day {
         }
     }
 
+    private static byte[] readFileAsBytes(Path filePath) {
+        try {
+            return Files.readAllBytes(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s".formatted(filePath));
+        }
+    }
+
     protected void createTestFile(String testSuffix, Consumer<Writer> testGenerator) {
         try {
             try (BufferedWriter testWriter = Files.newBufferedWriter(Path.of("inputs/%d/%s".formatted(aocYear, getInputPath(testSuffix))))) {
@@ -314,6 +692,31 @@ public abstract class Day {
         }
     }
 
+    /** Generator of synthetic inputs for scaling benchmarks, days with generator override this */
+    protected InputGenerator getInputGenerator() {
+        return null;
+    }
+
+    /** Writes input made by generator of the day as test file, unless the file exists (generation is deterministic by seed) */
+    public void generateInput(String testSuffix, int size, double density, long seed) {
+        InputGenerator generator = getInputGenerator();
+        if (generator == null) {
+            throw new UnsupportedOperationException("day %d-%02d has no input generator".formatted(aocYear, aocDay));
+        }
+        Path testPath = Path.of("inputs/%d/%s".formatted(aocYear, getInputPath(testSuffix)));
+        if (Files.exists(testPath) || Files.exists(testPath.resolveSibling(testPath.getFileName() + ".gz"))) {
+            return;
+        }
+        Random random = new Random(seed);
+        createTestFile(testSuffix, writer -> {
+            try {
+                generator.generate(writer, random, size, density);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     protected void logMemory() {
         var runtime = Runtime.getRuntime();
         System.out.printf("Runtime mem: max %d, total %d, free %d%n", runtime.maxMemory(), runtime.totalMemory(), runtime.freeMemory());
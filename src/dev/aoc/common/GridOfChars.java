@@ -1,23 +1,51 @@
 package dev.aoc.common;
 
-import java.nio.CharBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
-public class GridOfChars {
-    private final char[][] symbols;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class GridOfChars {
+    /**
+     * Order of cells in the flat array. Row-major keeps rows one after another, vertical step jumps over whole row.
+     * Tiled keeps squares of 8x8 cells (64 chars, two cache lines) together, Morton (Z-order) interleaves bits of column
+     * and row, so both keep vertical neighbours mostly close in memory at the cost of padding.
+     */
+    public enum Layout { ROW_MAJOR, TILED, MORTON }
+
+    private static final int TILE_BITS = 3;
+    private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+    private static final int TILE_AREA_BITS = 2 * TILE_BITS;
+    private static final int MORTON_COLS = 0x55555555;
+    private static final int MORTON_ROWS = 0xAAAAAAAA;
+
+    private final char[] symbols;
     private final int width;
     private final int height;
+    private final Layout layout;
+    /** Row-major: width, tiled: count of tiles in the row of tiles */
+    private final int stride;
 
     public GridOfChars(List<String> lines) {
-        this(
-                toArray(verifyEqualLengths(lines)),
-                lines.getFirst().length(),
-                lines.size()
-        );
+        this(lines, Layout.ROW_MAJOR);
+    }
+    public GridOfChars(List<String> lines, Layout layout) {
+        this(verifyEqualLengths(lines).getFirst().length(), lines.size(), ' ', layout);
+        for (int row = 0; row < height; row++) {
+            String rowLine = lines.get(row);
+            int index = indexOf(0, row);
+            for (int col = 0; col < width; col++) {
+                symbols[index] = rowLine.charAt(col);
+                index = right(index);
+            }
+        }
     }
     private static List<String> verifyEqualLengths(List<String> lines) {
         int height = lines.size();
@@ -30,37 +58,115 @@ public class GridOfChars {
         return lines;
     }
     public GridOfChars(int width, int height, char fillSymbol) {
-        this(emptyGrid(width, height, fillSymbol), width, height);
+        this(width, height, fillSymbol, Layout.ROW_MAJOR);
     }
-    private static char[][] emptyGrid(int width, int height, char fillSymbol) {
-        char[][] result = new char[height][];
-        IntStream.range(0, height).forEach(row -> {
-            result[row] = new char[width];
-            Arrays.fill(result[row], fillSymbol);
-        });
-        return result;
-    }
-    private GridOfChars(char[][] symbols, int width, int height) {
-        this.symbols = symbols;
+    public GridOfChars(int width, int height, char fillSymbol, Layout layout) {
         this.width = width;
         this.height = height;
+        this.layout = layout;
+        this.stride = switch (layout) {
+            case ROW_MAJOR -> width;
+            case TILED -> (width + TILE_MASK) >> TILE_BITS;
+            case MORTON -> 0;
+        };
+        this.symbols = new char[arraySize(width, height, layout)];
+        Arrays.fill(symbols, fillSymbol);
+    }
+    private static int arraySize(int width, int height, Layout layout) {
+        return switch (layout) {
+            case ROW_MAJOR -> width * height;
+            case TILED -> ((width + TILE_MASK) >> TILE_BITS) * ((height + TILE_MASK) >> TILE_BITS) << TILE_AREA_BITS;
+            case MORTON -> {
+                int side = Integer.highestOneBit(Math.max(1, Math.max(width, height) - 1)) << 1;
+                if (side > 1 << 15) {
+                    throw new IllegalArgumentException("grid %d x %d too large for Morton layout".formatted(width, height));
+                }
+                yield side * side;
+            }
+        };
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /** Index of cell in the flat array, start for stepping by {@link #up}, {@link #down}, {@link #left}, {@link #right} */
+    public int indexOf(int col, int row) {
+        return switch (layout) {
+            case ROW_MAJOR -> row * width + col;
+            case TILED -> (((row >> TILE_BITS) * stride + (col >> TILE_BITS)) << TILE_AREA_BITS) | ((row & TILE_MASK) << TILE_BITS) | (col & TILE_MASK);
+            case MORTON -> spreadBits(col) | (spreadBits(row) << 1);
+        };
+    }
+    private static int spreadBits(int value) {
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+
+    // neighbour stepping, caller keeps track of col/row bounds: index of cell outside of grid is not valid
+    public int up(int index) {
+        return switch (layout) {
+            case ROW_MAJOR -> index - width;
+            case TILED -> (index & (TILE_MASK << TILE_BITS)) != 0 ? index - (1 << TILE_BITS) : index - (stride << TILE_AREA_BITS) + (TILE_MASK << TILE_BITS);
+            case MORTON -> (((index & MORTON_ROWS) - 1) & MORTON_ROWS) | (index & MORTON_COLS);
+        };
+    }
+    public int down(int index) {
+        return switch (layout) {
+            case ROW_MAJOR -> index + width;
+            case TILED -> (index & (TILE_MASK << TILE_BITS)) != (TILE_MASK << TILE_BITS) ? index + (1 << TILE_BITS) : index + (stride << TILE_AREA_BITS) - (TILE_MASK << TILE_BITS);
+            case MORTON -> (((index | MORTON_COLS) + 1) & MORTON_ROWS) | (index & MORTON_COLS);
+        };
+    }
+    public int left(int index) {
+        return switch (layout) {
+            case ROW_MAJOR -> index - 1;
+            case TILED -> (index & TILE_MASK) != 0 ? index - 1 : index - (1 << TILE_AREA_BITS) + TILE_MASK;
+            case MORTON -> (((index & MORTON_COLS) - 1) & MORTON_COLS) | (index & MORTON_ROWS);
+        };
+    }
+    public int right(int index) {
+        return switch (layout) {
+            case ROW_MAJOR -> index + 1;
+            case TILED -> (index & TILE_MASK) != TILE_MASK ? index + 1 : index + (1 << TILE_AREA_BITS) - TILE_MASK;
+            case MORTON -> (((index | MORTON_ROWS) + 1) & MORTON_COLS) | (index & MORTON_ROWS);
+        };
+    }
+    public int step(int index, Grid.Direction direction) {
+        return switch (direction) {
+            case UP, NORTH -> up(index);
+            case DOWN, SOUTH -> down(index);
+            case LEFT, WEST -> left(index);
+            case RIGHT, EAST -> right(index);
+            case UNKNOWN -> index;
+        };
+    }
+
+    public char getAt(int index) {
+        return symbols[index];
+    }
+    public void setAt(int index, char s) {
+        symbols[index] = s;
     }
 
     public char get(int col, int row) {
-        return symbols[row][col];
+        return symbols[indexOf(col, row)];
     }
     public void set(int col, int row, char s) {
-        symbols[row][col] = s;
+        symbols[indexOf(col, row)] = s;
     }
 
     public boolean is(int col, int row, char s) {
-        return symbols[row][col] == s;
+        return symbols[indexOf(col, row)] == s;
     }
     public boolean isNot(int col, int row, char s) {
-        return symbols[row][col] != s;
+        return symbols[indexOf(col, row)] != s;
     }
     public boolean isInSet(int col, int row, String set) {
-        return set.indexOf(symbols[row][col]) >= 0;
+        return set.indexOf(symbols[indexOf(col, row)]) >= 0;
     }
 
     public int getWidth() {
@@ -82,10 +188,12 @@ public class GridOfChars {
     public int count(Predicate<Character> predicate) {
         int count = 0;
         for (int row = 0; row < height; row++) {
+            int index = indexOf(0, row);
             for (int col = 0; col < width; col++) {
-                if (predicate.test(symbols[row][col])) {
+                if (predicate.test(symbols[index])) {
                     count++;
                 }
+                index = right(index);
             }
         }
         return count;
@@ -93,50 +201,45 @@ public class GridOfChars {
 
     public void map(BiFunction<Integer, Integer, Character> mapper) {
         for (int row = 0; row < height; row++) {
+            int index = indexOf(0, row);
             for (int col = 0; col < width; col++) {
-                symbols[row][col] = mapper.apply(col, row);
+                symbols[index] = mapper.apply(col, row);
+                index = right(index);
             }
         }
     }
 
     public void fill(char fillSymbol) {
-        IntStream.range(0, height).forEach(row -> {
-            Arrays.fill(symbols[row], fillSymbol);
-        });
-    }
-
-    private List<String> toLines(char[][] mapArray) {
-        return Arrays.stream(mapArray).map(chs -> CharBuffer.wrap(chs).toString()).toList();
+        Arrays.fill(symbols, fillSymbol);
     }
 
-    private static char[][] toArray(List<String> lines) {
-        char[][] result = new char[lines.size()][];
-        IntStream.range(0, result.length).forEach(row -> {
-            result[row] = new char[lines.getFirst().length()];
-            String rowLine = lines.get(row);
-            IntStream.range(0, result[row].length).forEach(col -> {
-                result[row][col] = rowLine.charAt(col);
-            });
-        });
+    private char[] toRow(int row) {
+        char[] result = new char[width];
+        int index = indexOf(0, row);
+        for (int col = 0; col < width; col++) {
+            result[col] = symbols[index];
+            index = right(index);
+        }
         return result;
     }
 
-    private static char[][] clone(char[][] arr) {
-        char[][] result = new char[arr.length][];
-        IntStream.range(0, arr.length).forEach(row -> {
-            result[row] = Arrays.copyOf(arr[row], arr[row].length);
-        });
+    public List<String> toLines() {
+        List<String> result = new ArrayList<>(height);
+        for (int row = 0; row < height; row++) {
+            result.add(new String(toRow(row)));
+        }
         return result;
     }
 
     @Override
     public String toString() {
-        return String.join("%n".formatted(), toLines(symbols));
+        return String.join("%n".formatted(), toLines());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(Arrays.stream(symbols).mapToInt(Arrays::hashCode).toArray());
+        // the same for all layouts
+        return Arrays.hashCode(IntStream.range(0, height).map(row -> Arrays.hashCode(toRow(row))).toArray());
     }
 
     @Override
@@ -144,6 +247,37 @@ public class GridOfChars {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         GridOfChars grid = (GridOfChars)o;
-        return Arrays.deepEquals(symbols, grid.symbols);
+        if (width != grid.width || height != grid.height) {
+            return false;
+        }
+        if (layout == grid.layout) {
+            return IntStream.range(0, height).allMatch(row -> Arrays.equals(toRow(row), grid.toRow(row)));
+        }
+        return toLines().equals(grid.toLines());
+    }
+
+    public static class GridOfCharsTest {
+        @Test
+        void layouts_stepping() {
+            var rng = new Random(17);
+            int width = 21, height = 13;
+            GridOfChars rowMajor = new GridOfChars(width, height, '.');
+            rowMajor.map((col, row) -> (char)('a' + rng.nextInt(26)));
+            for (Layout layout : Layout.values()) {
+                GridOfChars grid = new GridOfChars(rowMajor.toLines(), layout);
+                assertEquals(rowMajor, grid);
+                assertEquals(rowMajor.hashCode(), grid.hashCode());
+                for (int row = 0; row < height; row++) {
+                    for (int col = 0; col < width; col++) {
+                        int index = grid.indexOf(col, row);
+                        assertEquals(rowMajor.get(col, row), grid.getAt(index));
+                        if (col > 0) assertEquals(grid.indexOf(col - 1, row), grid.left(index));
+                        if (col < width - 1) assertEquals(grid.indexOf(col + 1, row), grid.right(index));
+                        if (row > 0) assertEquals(grid.indexOf(col, row - 1), grid.up(index));
+                        if (row < height - 1) assertEquals(grid.indexOf(col, row + 1), grid.step(index, Grid.Direction.DOWN));
+                    }
+                }
+            }
+        }
     }
 }
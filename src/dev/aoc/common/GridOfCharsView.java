@@ -0,0 +1,178 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Read-only grid over bytes of input (single byte symbols), rows are indexed in place with stride including newline
+ * ("\n" or "\r\n"), nothing is copied. For mutation make a copy by {@link #toGridOfChars} or {@link #toGrid}.
+ */
+public class GridOfCharsView {
+    private final byte[] bytes;
+    private final int offset;
+    private final int width;
+    private final int height;
+    private final int stride;
+
+    public GridOfCharsView(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+    public GridOfCharsView(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int lineEnd = offset;
+        while (lineEnd < end && !isNewline(bytes[lineEnd])) {
+            lineEnd++;
+        }
+        int newlineLength = lineEnd + 1 < end && bytes[lineEnd] == '\r' && bytes[lineEnd + 1] == '\n' ? 2 : 1;
+        int width = lineEnd - offset;
+        if (width == 0) {
+            throw new IllegalArgumentException("empty first line");
+        }
+        // only verify line lengths, trailing empty lines are ignored
+        int height = 0;
+        int rowStart = offset;
+        for (; rowStart < end && !isNewline(bytes[rowStart]); rowStart += width + newlineLength) {
+            int rowEnd = rowStart + width;
+            if (rowEnd > end || (rowEnd < end && !isNewlineAt(bytes, rowEnd, end, newlineLength))) {
+                throw new IllegalArgumentException("line length mismatch at row %d".formatted(height));
+            }
+            for (int pos = rowStart; pos < rowEnd; pos++) {
+                if (isNewline(bytes[pos])) {
+                    throw new IllegalArgumentException("line length mismatch at row %d".formatted(height));
+                }
+            }
+            height++;
+        }
+        for (int pos = rowStart; pos < end; pos++) {
+            if (!isNewline(bytes[pos])) {
+                throw new IllegalArgumentException("non-empty line after empty line at row %d".formatted(height));
+            }
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.width = width;
+        this.height = height;
+        this.stride = width + newlineLength;
+    }
+    private static boolean isNewline(byte b) {
+        return b == '\n' || b == '\r';
+    }
+    private static boolean isNewlineAt(byte[] bytes, int pos, int end, int newlineLength) {
+        return newlineLength == 1 ? bytes[pos] == '\n' : pos + 1 < end && bytes[pos] == '\r' && bytes[pos + 1] == '\n';
+    }
+
+    public char get(int col, int row) {
+        return (char)(bytes[offset + row * stride + col] & 0xFF);
+    }
+
+    public boolean is(int col, int row, char s) {
+        return get(col, row) == s;
+    }
+    public boolean isNot(int col, int row, char s) {
+        return get(col, row) != s;
+    }
+    public boolean isInSet(int col, int row, String set) {
+        return set.indexOf(get(col, row)) >= 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasColumn(int col) {
+        return col >= 0 && col < width;
+    }
+
+    public boolean hasRow(int row) {
+        return row >= 0 && row < height;
+    }
+
+    public int count(Predicate<Character> predicate) {
+        int count = 0;
+        for (int row = 0; row < height; row++) {
+            for (int index = offset + row * stride, rowEnd = index + width; index < rowEnd; index++) {
+                if (predicate.test((char)(bytes[index] & 0xFF))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Mutable copy */
+    public GridOfChars toGridOfChars() {
+        return toGridOfChars(GridOfChars.Layout.ROW_MAJOR);
+    }
+    /** Mutable copy with given storage layout */
+    public GridOfChars toGridOfChars(GridOfChars.Layout layout) {
+        GridOfChars result = new GridOfChars(width, height, ' ', layout);
+        for (int row = 0; row < height; row++) {
+            int index = result.indexOf(0, row);
+            for (int col = 0, source = offset + row * stride; col < width; col++, source++) {
+                result.setAt(index, (char)(bytes[source] & 0xFF));
+                index = result.right(index);
+            }
+        }
+        return result;
+    }
+    /** Mutable copy as grid of single char elements (no element delimiter) */
+    public Grid<Character> toGrid() {
+        Grid<Character> result = new Grid<>(width, height, ' ', "");
+        result.map((col, row) -> get(col, row));
+        return result;
+    }
+
+    public List<String> toLines() {
+        List<String> result = new ArrayList<>(height);
+        for (int row = 0; row < height; row++) {
+            result.add(new String(bytes, offset + row * stride, width, StandardCharsets.ISO_8859_1));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("%n".formatted(), toLines());
+    }
+
+    public static class GridOfCharsViewTest {
+        @Test
+        void newlines() {
+            for (String input : List.of("#.#\n.#.\n", "#.#\r\n.#.\r\n", "#.#\n.#.", "#.#\r\n.#.\r\n\r\n")) {
+                GridOfCharsView view = new GridOfCharsView(input.getBytes(StandardCharsets.ISO_8859_1));
+                assertEquals(3, view.getWidth());
+                assertEquals(2, view.getHeight());
+                assertEquals('#', view.get(1, 1));
+                assertEquals(3, view.count(c -> c == '#'));
+                assertEquals(List.of("#.#", ".#."), view.toLines());
+            }
+            assertThrows(IllegalArgumentException.class, () -> new GridOfCharsView("#.#\n.#\n".getBytes(StandardCharsets.ISO_8859_1)));
+            assertThrows(IllegalArgumentException.class, () -> new GridOfCharsView("#.#\n.#.#\n".getBytes(StandardCharsets.ISO_8859_1)));
+            assertThrows(IllegalArgumentException.class, () -> new GridOfCharsView("#.#.\n#\n.#\n".getBytes(StandardCharsets.ISO_8859_1)));
+            assertThrows(IllegalArgumentException.class, () -> new GridOfCharsView("#.#\n\n.#.\n".getBytes(StandardCharsets.ISO_8859_1)));
+            assertThrows(IllegalArgumentException.class, () -> new GridOfCharsView("#.#\r\n\r\n.#.\r\n".getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        @Test
+        void copyOnWrite() {
+            byte[] input = "ab\ncd\n".getBytes(StandardCharsets.ISO_8859_1);
+            GridOfCharsView view = new GridOfCharsView(input);
+            GridOfChars copy = view.toGridOfChars(GridOfChars.Layout.MORTON);
+            copy.set(1, 1, 'x');
+            assertEquals('d', view.get(1, 1));
+            assertEquals(List.of("ab", "cx"), copy.toLines());
+            assertEquals(view.toLines(), view.toGrid().toLines());
+        }
+    }
+}
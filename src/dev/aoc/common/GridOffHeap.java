@@ -0,0 +1,294 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Grid of chars kept outside of heap (direct or file mapped buffers), for grids of hundreds of millions of cells.
+ * Cells are either bytes (symbols 0-255) or bits (two symbols, false and true). Memory is split into chunks of 1GB,
+ * as single buffer is limited to 2GB. Mapped grid keeps its contents in the file, reopened with the same dimensions
+ * it starts with contents from before.
+ * Direct buffers have no explicit release: close drops references to them, memory is freed when GC collects them, and
+ * until then it counts into -XX:MaxDirectMemorySize. Grid must not be used after close.
+ */
+public final class GridOffHeap implements Closeable {
+    public enum CellType { BYTE, BIT }
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long byteSize;
+    private final int width;
+    private final int height;
+    private final CellType cellType;
+    /** Symbols of bit cells */
+    private final char falseSymbol, trueSymbol;
+    private final FileChannel channel;
+
+    /** Grid with byte per cell */
+    public GridOffHeap(int width, int height, char fillSymbol) {
+        this(width, height, CellType.BYTE, (char)0, (char)0, null);
+        fill(fillSymbol);
+    }
+    /** Grid with bit per cell, filled with false symbol */
+    public GridOffHeap(int width, int height, char falseSymbol, char trueSymbol) {
+        this(width, height, CellType.BIT, falseSymbol, trueSymbol, null);
+    }
+    /** Grid with byte per cell mapped to file, fill symbol is used only for new file (or file of different size) */
+    public static GridOffHeap mapped(Path path, int width, int height, char fillSymbol) {
+        return mapped(path, width, height, CellType.BYTE, fillSymbol, (char)0, fillSymbol);
+    }
+    /** Grid with bit per cell mapped to file, new file (or file of different size) is filled with false symbol */
+    public static GridOffHeap mappedBits(Path path, int width, int height, char falseSymbol, char trueSymbol) {
+        return mapped(path, width, height, CellType.BIT, falseSymbol, trueSymbol, falseSymbol);
+    }
+    private static GridOffHeap mapped(Path path, int width, int height, CellType cellType, char falseSymbol, char trueSymbol, char fillSymbol) {
+        long byteSize = byteSize(width, height, cellType);
+        try {
+            boolean isReopened = Files.exists(path) && Files.size(path) == byteSize;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (!isReopened) {
+                channel.truncate(0);
+            }
+            GridOffHeap grid = new GridOffHeap(width, height, cellType, falseSymbol, trueSymbol, channel);
+            if (!isReopened) {
+                grid.fill(fillSymbol);
+            }
+            return grid;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private GridOffHeap(int width, int height, CellType cellType, char falseSymbol, char trueSymbol, FileChannel channel) {
+        this.width = width;
+        this.height = height;
+        this.cellType = cellType;
+        this.falseSymbol = falseSymbol;
+        this.trueSymbol = trueSymbol;
+        this.channel = channel;
+        this.byteSize = byteSize(width, height, cellType);
+        this.chunks = new ByteBuffer[(int)((byteSize + CHUNK_MASK) >>> CHUNK_BITS)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int chunkSize = (int)Math.min(CHUNK_MASK + 1, byteSize - ((long)chunk << CHUNK_BITS));
+            try {
+                chunks[chunk] = channel == null
+                        ? ByteBuffer.allocateDirect(chunkSize)
+                        : channel.map(FileChannel.MapMode.READ_WRITE, (long)chunk << CHUNK_BITS, chunkSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    private static long byteSize(int width, int height, CellType cellType) {
+        long cells = (long)width * height;
+        return cellType == CellType.BYTE ? cells : (cells + 7) >>> 3;
+    }
+
+    public CellType getCellType() {
+        return cellType;
+    }
+
+    private long cellIndex(int col, int row) {
+        return (long)row * width + col;
+    }
+    private byte getByte(long byteIndex) {
+        return chunks[(int)(byteIndex >>> CHUNK_BITS)].get((int)(byteIndex & CHUNK_MASK));
+    }
+    private void putByte(long byteIndex, byte value) {
+        chunks[(int)(byteIndex >>> CHUNK_BITS)].put((int)(byteIndex & CHUNK_MASK), value);
+    }
+
+    public boolean getBit(int col, int row) {
+        if (cellType != CellType.BIT) {
+            throw new IllegalStateException("grid of %s cells has no bits".formatted(cellType));
+        }
+        long index = cellIndex(col, row);
+        return (getByte(index >>> 3) & (1 << (index & 7))) != 0;
+    }
+    public void setBit(int col, int row, boolean value) {
+        if (cellType != CellType.BIT) {
+            throw new IllegalStateException("grid of %s cells has no bits".formatted(cellType));
+        }
+        long index = cellIndex(col, row);
+        long byteIndex = index >>> 3;
+        int bits = getByte(byteIndex);
+        putByte(byteIndex, (byte)(value ? bits | (1 << (index & 7)) : bits & ~(1 << (index & 7))));
+    }
+
+    public char get(int col, int row) {
+        if (cellType == CellType.BIT) {
+            return getBit(col, row) ? trueSymbol : falseSymbol;
+        }
+        return (char)(getByte(cellIndex(col, row)) & 0xFF);
+    }
+    public void set(int col, int row, char s) {
+        if (cellType == CellType.BIT) {
+            setBit(col, row, toBit(s));
+        } else {
+            putByte(cellIndex(col, row), toByte(s));
+        }
+    }
+    private boolean toBit(char s) {
+        if (s != trueSymbol && s != falseSymbol) {
+            throw new IllegalArgumentException("symbol '%c' is neither '%c' nor '%c'".formatted(s, falseSymbol, trueSymbol));
+        }
+        return s == trueSymbol;
+    }
+    private static byte toByte(char s) {
+        if (s > 0xFF) {
+            throw new IllegalArgumentException("symbol '%c' does not fit in byte".formatted(s));
+        }
+        return (byte)s;
+    }
+
+    public boolean is(int col, int row, char s) {
+        return get(col, row) == s;
+    }
+    public boolean isNot(int col, int row, char s) {
+        return get(col, row) != s;
+    }
+    public boolean isInSet(int col, int row, String set) {
+        return set.indexOf(get(col, row)) >= 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasColumn(int col) {
+        return col >= 0 && col < width;
+    }
+
+    public boolean hasRow(int row) {
+        return row >= 0 && row < height;
+    }
+
+    /** Count of cells is long, grid may have more than 2^31 cells */
+    public long count(Predicate<Character> predicate) {
+        if (cellType == CellType.BIT) {
+            long countTrue = countBits();
+            return (predicate.test(trueSymbol) ? countTrue : 0) + (predicate.test(falseSymbol) ? (long)width * height - countTrue : 0);
+        }
+        boolean[] isCounted = new boolean[256];
+        for (int b = 0; b < 256; b++) {
+            isCounted[b] = predicate.test((char)b);
+        }
+        long count = 0;
+        for (ByteBuffer chunk : chunks) {
+            for (int i = 0, size = chunk.capacity(); i < size; i++) {
+                if (isCounted[chunk.get(i) & 0xFF]) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    public long count(char s) {
+        return count(c -> c == s);
+    }
+    private long countBits() {
+        // bits after last cell are always zero
+        long count = 0;
+        for (ByteBuffer chunk : chunks) {
+            int size = chunk.capacity(), i = 0;
+            for (; i + Long.BYTES <= size; i += Long.BYTES) {
+                count += Long.bitCount(chunk.getLong(i));
+            }
+            for (; i < size; i++) {
+                count += Integer.bitCount(chunk.get(i) & 0xFF);
+            }
+        }
+        return count;
+    }
+
+    public void fill(char fillSymbol) {
+        byte fill = cellType == CellType.BIT ? (byte)(toBit(fillSymbol) ? 0xFF : 0) : toByte(fillSymbol);
+        long fillLong = (fill & 0xFFL) * 0x0101010101010101L;
+        for (ByteBuffer chunk : chunks) {
+            int size = chunk.capacity(), i = 0;
+            for (; i + Long.BYTES <= size; i += Long.BYTES) {
+                chunk.putLong(i, fillLong);
+            }
+            for (; i < size; i++) {
+                chunk.put(i, fill);
+            }
+        }
+        long cells = (long)width * height;
+        if (cellType == CellType.BIT && (cells & 7) != 0) {
+            putByte(byteSize - 1, (byte)(getByte(byteSize - 1) & ((1 << (cells & 7)) - 1)));
+        }
+    }
+
+    /** Writes contents of mapped grid to its file (no-op for grid in memory) */
+    public void force() {
+        for (ByteBuffer chunk : chunks) {
+            if (chunk instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Arrays.fill(chunks, null); // buffers become collectable even if grid itself stays referenced
+    }
+
+    public static class GridOffHeapTest {
+        @Test
+        void bytesAndBits() {
+            GridOffHeap bytes = new GridOffHeap(13, 7, '.');
+            bytes.set(12, 6, '#');
+            bytes.set(0, 0, '#');
+            assertEquals('#', bytes.get(12, 6));
+            assertEquals(2L, bytes.count('#'));
+            assertEquals(89L, bytes.count(c -> c == '.'));
+            GridOffHeap bits = new GridOffHeap(13, 7, '.', '#');
+            bits.set(12, 6, '#');
+            bits.setBit(5, 3, true);
+            assertEquals('#', bits.get(5, 3));
+            assertEquals(2L, bits.count('#'));
+            bits.fill('#');
+            assertEquals(91L, bits.count('#'));
+            assertEquals(0L, bits.count('.'));
+        }
+
+        @Test
+        void mapped() throws IOException {
+            Path path = Files.createTempFile("grid", ".bin");
+            path.toFile().deleteOnExit(); // mapped file can't be deleted on some systems until buffer is collected
+            try (GridOffHeap grid = GridOffHeap.mappedBits(path, 100, 100, '.', '#')) {
+                grid.set(42, 17, '#');
+            }
+            try (GridOffHeap grid = GridOffHeap.mappedBits(path, 100, 100, '.', '#')) {
+                assertEquals('#', grid.get(42, 17));
+                assertEquals(1L, grid.count('#'));
+            }
+        }
+    }
+}
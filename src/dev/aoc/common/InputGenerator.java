@@ -0,0 +1,16 @@
+package dev.aoc.common;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Generator of synthetic input of a day, for benchmarks of scaling. Size is approximate count of input elements (cells
+ * of grid, sequences, ...), so input volume grows linearly with size, density is up to the day (e.g. probability of
+ * object in cell). All randomness must come from given random, same seed gives the same input. Input is written
+ * directly to the writer, memory use must not grow with size.
+ */
+@FunctionalInterface
+public interface InputGenerator {
+    void generate(Writer writer, Random random, int size, double density) throws IOException;
+}
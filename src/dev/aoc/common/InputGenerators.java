@@ -0,0 +1,52 @@
+package dev.aoc.common;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Ladder of generated inputs of a day, each step 10x the size of previous (1x, 10x, 100x, ...), for benchmarks of how
+ * solvers scale. Inputs are named by size, density and seed, existing ones are reused.
+ * Run as: InputGenerators dev.aoc.aoc2023.Day16 2500 0.105 [steps 3] [seed 1]
+ */
+public class InputGenerators {
+    public static String getSuffix(int size, double density, long seed) {
+        return "_gen_%d_%s_%d".formatted(size, density, seed);
+    }
+
+    /** Generates missing inputs of the ladder, returns their suffixes from the smallest */
+    public static List<String> ladder(Function<String, Day> dayFactory, int baseSize, double density, int steps, long seed) {
+        List<String> suffixes = new ArrayList<>(steps);
+        long size = baseSize;
+        for (int step = 0; step < steps; step++, size *= 10) {
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("size %d of step %d too large".formatted(size, step));
+            }
+            String suffix = getSuffix((int)size, density, seed);
+            dayFactory.apply(suffix).generateInput(suffix, (int)size, density, seed);
+            suffixes.add(suffix);
+        }
+        return suffixes;
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        if (args.length < 3) {
+            System.out.println("usage: InputGenerators <day class> <base size> <density> [steps] [seed]");
+            return;
+        }
+        Constructor<? extends Day> constructor = Class.forName(args[0]).asSubclass(Day.class).getConstructor(String.class);
+        Function<String, Day> dayFactory = suffix -> {
+            try {
+                return constructor.newInstance(suffix);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        int steps = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        for (String suffix : ladder(dayFactory, Integer.parseInt(args[1]), Double.parseDouble(args[2]), steps, seed)) {
+            System.out.printf("input \"%s\"%n", suffix);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.aoc.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Day with parsed structures that can be stored in compact binary snapshot next to the input and loaded instead of parsing,
+ * used for parsers annotated with snapshot = true. Snapshot is valid for the same input bytes and snapshot version,
+ * increase version when format of written structures changes.
+ */
+public interface ParseSnapshot {
+    void writeSnapshot(int partNumber, String parserName, DataOutput output) throws IOException;
+    void readSnapshot(int partNumber, String parserName, DataInput input) throws IOException;
+    /** Clears structures left partially filled by failed readSnapshot, called before input is parsed instead */
+    void resetSnapshot(int partNumber, String parserName);
+
+    default int getSnapshotVersion() {
+        return 1;
+    }
+}
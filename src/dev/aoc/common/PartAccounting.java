@@ -0,0 +1,170 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Resource usage of a phase (parsing or solving of part): wall time, heap bytes allocated by all threads (including worker
+ * threads that finished meanwhile), count and time of garbage collections, CPU time of the whole process and peak used
+ * heap. Values are process-wide, so they include anything else running at the same time (JIT compiler threads burn CPU).
+ * Day.run prints usage of each part, and appends it as JSON line to file given by system property -Daoc.accounting=file.jsonl
+ */
+public class PartAccounting {
+    private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.OperatingSystemMXBean osBean = (com.sun.management.OperatingSystemMXBean)ManagementFactory.getOperatingSystemMXBean();
+    private static final String jsonLinesProperty = System.getProperty("aoc.accounting");
+
+    public record Usage(Duration elapsed, long allocatedBytes, long gcCount, Duration gcTime, Duration cpuTime, long peakHeapBytes) {
+        @Override
+        public String toString() {
+            return "elapsed %s, cpu %s, allocated %d KB, gc %d times in %s, peak heap %d MB".formatted(
+                    elapsed, cpuTime, allocatedBytes >> 10, gcCount, gcTime, peakHeapBytes >> 20
+            );
+        }
+
+        public Map<String, Long> asMap() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("elapsedNanos", elapsed.toNanos());
+            result.put("cpuNanos", cpuTime.toNanos());
+            result.put("allocatedBytes", allocatedBytes);
+            result.put("gcCount", gcCount);
+            result.put("gcMillis", gcTime.toMillis());
+            result.put("peakHeapBytes", peakHeapBytes);
+            return result;
+        }
+    }
+
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private final long startGcCount;
+    private final long startGcMillis;
+    private final long startCpuNanos;
+
+    private PartAccounting() {
+        resetPeakHeap();
+        startAllocatedBytes = threadBean.isThreadAllocatedMemoryEnabled() ? threadBean.getTotalThreadAllocatedBytes() : 0;
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+        startCpuNanos = osBean.getProcessCpuTime();
+        startNanos = System.nanoTime();
+    }
+
+    /** Starts measuring (resets peak heap) */
+    public static PartAccounting start() {
+        return new PartAccounting();
+    }
+
+    /** Usage since start */
+    public Usage finish() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return new Usage(
+                Duration.ofNanos(elapsedNanos),
+                threadBean.isThreadAllocatedMemoryEnabled() ? threadBean.getTotalThreadAllocatedBytes() - startAllocatedBytes : -1,
+                gcCount() - startGcCount,
+                Duration.ofMillis(gcMillis() - startGcMillis),
+                Duration.ofNanos(Math.max(0, osBean.getProcessCpuTime() - startCpuNanos)),
+                getPeakHeap()
+        );
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(millis -> millis > 0).sum();
+    }
+
+    /** Resets peak usage of heap memory pools, to measure peak of following work */
+    public static void resetPeakHeap() {
+        ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP).forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /** Sum of peak usages of heap memory pools since last reset */
+    public static long getPeakHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP).mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    /** Single line JSON object of part usage */
+    public static String toJsonLine(int year, int day, String inputSuffix, int part, String parserName, String solverName, Usage parsing, Usage solving) {
+        return "{\"year\":%d,\"day\":%d,\"input\":%s,\"part\":%d,\"parser\":%s,\"solver\":%s,\"parse\":%s,\"solve\":%s}".formatted(
+                year, day, jsonString(inputSuffix), part, jsonString(parserName), jsonString(solverName), jsonObject(parsing.asMap()), jsonObject(solving.asMap())
+        );
+    }
+    private static String jsonObject(Map<String, Long> values) {
+        return values.entrySet().stream().map(entry -> jsonString(entry.getKey()) + ":" + entry.getValue()).collect(Collectors.joining(",", "{", "}"));
+    }
+    static String jsonString(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> result.append("\\\"");
+                case '\\' -> result.append("\\\\");
+                default -> {
+                    if (c < ' ') {
+                        result.append("\\u%04x".formatted((int)c));
+                    } else {
+                        result.append(c);
+                    }
+                }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /** Appends JSON line to file given by -Daoc.accounting, no-op without it */
+    static void appendJsonLine(String jsonLine) {
+        if (jsonLinesProperty == null || jsonLinesProperty.isBlank()) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Path.of(jsonLinesProperty), StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(jsonLine);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class PartAccountingTest {
+        @Test
+        void allocationOfWorkerThreads() throws InterruptedException {
+            PartAccounting accounting = PartAccounting.start();
+            Thread worker = new Thread(() -> {
+                long[][] garbage = new long[64][];
+                for (int i = 0; i < garbage.length; i++) {
+                    garbage[i] = new long[1 << 14]; // 128 KB each, 8 MB total
+                }
+            });
+            worker.start();
+            worker.join();
+            Usage usage = accounting.finish();
+            assertTrue(usage.allocatedBytes() >= 64L << 17, "allocated %d".formatted(usage.allocatedBytes()));
+            assertTrue(usage.peakHeapBytes() > 0);
+        }
+
+        @Test
+        void jsonLine() {
+            Usage usage = new Usage(Duration.ofMillis(2), 1024, 1, Duration.ofMillis(1), Duration.ofMillis(3), 4096);
+            assertEquals("{\"year\":2023,\"day\":16,\"input\":\"_sample\",\"part\":2,\"parser\":\"default\",\"solver\":\"flat \\\"grid\\\"\","
+                    + "\"parse\":{\"elapsedNanos\":2000000,\"cpuNanos\":3000000,\"allocatedBytes\":1024,\"gcCount\":1,\"gcMillis\":1,\"peakHeapBytes\":4096},"
+                    + "\"solve\":{\"elapsedNanos\":2000000,\"cpuNanos\":3000000,\"allocatedBytes\":1024,\"gcCount\":1,\"gcMillis\":1,\"peakHeapBytes\":4096}}",
+                    PartAccounting.toJsonLine(2023, 16, "_sample", 2, "default", "flat \"grid\"", usage, usage));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package dev.aoc.common;
+
+import jdk.jfr.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * JDK Flight Recorder events of Day.run: parsing and solving of each part (year, day, part, solution name) and counters
+ * reported by solvers (heap operations, expanded nodes, ...), so GC, allocation and lock profiles can be matched with
+ * solvers. Events cost next to nothing without running recording. Day.run starts recording with "profile" settings when
+ * system property -Daoc.jfr=file.jfr is given (-Daoc.jfr=true records to aoc_year-day.jfr), any other recording
+ * (-XX:StartFlightRecording, jcmd JFR.start) gets the events as well. Route finder search statistics are recorded as
+ * counters only when enabled on their own (-Daoc.searchStatistics=true), recording does not enable them, so it profiles
+ * the same code path as a plain run.
+ */
+public class PartEvents {
+    private static final String recordingProperty = System.getProperty("aoc.jfr");
+
+    @Category("Advent of Code")
+    private static abstract class PartEvent extends Event {
+        @Label("Year")
+        int year;
+        @Label("Day")
+        int day;
+        @Label("Part")
+        int part;
+        @Label("Solution Name")
+        String solutionName;
+        @Label("Input Suffix")
+        String inputSuffix;
+    }
+
+    @Name("dev.aoc.PartParse")
+    @Label("Part Parse")
+    @Description("Parsing of input for part by named parser")
+    public static class PartParse extends PartEvent {
+    }
+
+    @Name("dev.aoc.PartSolve")
+    @Label("Part Solve")
+    @Description("Solving of part by named solver")
+    public static class PartSolve extends PartEvent {
+        @Label("Result")
+        String result;
+    }
+
+    @Name("dev.aoc.SolverCounter")
+    @Label("Solver Counter")
+    @Description("Counter reported by solver, e.g. heap operations or expanded nodes")
+    public static class SolverCounter extends PartEvent {
+        @Label("Counter")
+        String counter;
+        @Label("Value")
+        long value;
+    }
+
+    private record Context(int year, int day, int part, String solutionName, String inputSuffix) {}
+    /** Part being solved by current thread, for counters reported from within solvers */
+    private static final ThreadLocal<Context> context = new ThreadLocal<>();
+
+    public static PartParse beginParse(int year, int day, int part, String parserName, String inputSuffix) {
+        PartParse event = new PartParse();
+        fill(event, new Context(year, day, part, parserName, inputSuffix));
+        event.begin();
+        return event;
+    }
+
+    public static PartSolve beginSolve(int year, int day, int part, String solverName, String inputSuffix) {
+        PartSolve event = new PartSolve();
+        Context solving = new Context(year, day, part, solverName, inputSuffix);
+        fill(event, solving);
+        context.set(solving);
+        event.begin();
+        return event;
+    }
+
+    public static void endSolve(PartSolve event, Object result) {
+        event.end();
+        context.remove();
+        if (event.shouldCommit()) {
+            event.result = String.valueOf(result);
+            event.commit();
+        }
+    }
+
+    /** Reports counter of the part being solved by current thread (event has no part fields outside of Day.run) */
+    public static void counter(String counter, long value) {
+        SolverCounter event = new SolverCounter();
+        if (event.isEnabled()) {
+            Context solving = context.get();
+            if (solving != null) {
+                fill(event, solving);
+            }
+            event.counter = counter;
+            event.value = value;
+            event.commit();
+        }
+    }
+
+    /** Reports all counters, name of counter is prefixed */
+    public static void counters(String prefix, Map<String, Long> counters) {
+        counters.forEach((counter, value) -> counter(prefix + counter, value));
+    }
+
+    private static void fill(PartEvent event, Context solving) {
+        event.year = solving.year();
+        event.day = solving.day();
+        event.part = solving.part();
+        event.solutionName = solving.solutionName();
+        event.inputSuffix = solving.inputSuffix();
+    }
+
+    /** Starts recording if requested by -Daoc.jfr, returns null otherwise */
+    static Recording startRecording(int year, int day) {
+        if (recordingProperty == null || recordingProperty.isBlank() || recordingProperty.equals("false")) {
+            return null;
+        }
+        Path destination = Path.of(recordingProperty.equals("true") ? "aoc_%d-%02d.jfr".formatted(year, day) : recordingProperty);
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("aoc %d-%02d".formatted(year, day));
+            recording.setDestination(destination);
+            recording.start();
+            System.out.printf("### Flight recording to %s%n%n", destination);
+            return recording;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("could not read JFR configuration", e);
+        }
+    }
+
+    /** Stops recording (written to its destination), no-op for null */
+    static void stopRecording(Recording recording) {
+        if (recording != null) {
+            recording.stop();
+            System.out.printf("### Flight recording written to %s%n", recording.getDestination());
+            recording.close();
+        }
+    }
+}
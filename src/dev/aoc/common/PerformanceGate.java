@@ -0,0 +1,263 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Baselines of solver timings and regression check against them. Each solution of a day is run in repeated trials
+ * (after warm-up) on the given input, baseline keeps median, p90 and median absolute deviation of solving time and
+ * median of allocated bytes. Baselines are JSON files in inputs/baselines, one per year-day, part, solution name and
+ * input suffix. Compare fails on median slower than baseline by more than 10% and more than 3 deviations (scaled
+ * noise of both runs), or allocation larger by more than 10% and 1 MB.
+ * Run as: PerformanceGate record|compare [-trials N] dev.aoc.aoc2023.Day16:_large1 ...
+ * Compare exits with 1 when there is any regression.
+ */
+public class PerformanceGate {
+    private static final Path baselinesPath = Path.of("inputs/baselines");
+    private static final int WARMUP_TRIALS = 2;
+    private static final double MIN_RELATIVE_SLOWDOWN = 0.10;
+    private static final double NOISE_DEVIATIONS = 3.0;
+    private static final double MAD_TO_SIGMA = 1.4826;
+    private static final double MIN_RELATIVE_ALLOCATION = 0.10;
+    private static final long MIN_ALLOCATION_BYTES = 1 << 20;
+
+    public record Baseline(int year, int day, int part, String solutionName, String inputSuffix, int trials, long medianNanos, long p90Nanos, long madNanos, long allocatedBytes) {
+        public String key() {
+            return "%d-%02d part %d \"%s\" %s".formatted(year, day, part, solutionName, inputSuffix.isEmpty() ? "main" : inputSuffix);
+        }
+
+        private String fileName() {
+            return "%d-%02d_part%d_%s_%s.json".formatted(year, day, part, solutionName.replaceAll("[^A-Za-z0-9]+", "_"), inputSuffix.isEmpty() ? "main" : inputSuffix.replaceAll("[^A-Za-z0-9.]+", "_"));
+        }
+
+        public String toJson() {
+            return "{\"year\":%d,\"day\":%d,\"part\":%d,\"solutionName\":%s,\"inputSuffix\":%s,\"trials\":%d,\"medianNanos\":%d,\"p90Nanos\":%d,\"madNanos\":%d,\"allocatedBytes\":%d}".formatted(
+                    year, day, part, PartAccounting.jsonString(solutionName), PartAccounting.jsonString(inputSuffix), trials, medianNanos, p90Nanos, madNanos, allocatedBytes
+            );
+        }
+
+        private static final Pattern jsonField = Pattern.compile("\"(\\w+)\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|-?\\d+)");
+
+        public static Baseline fromJson(String json) {
+            Map<String, String> fields = new HashMap<>();
+            Matcher matcher = jsonField.matcher(json);
+            while (matcher.find()) {
+                fields.put(matcher.group(1), matcher.group(2));
+            }
+            try {
+                return new Baseline(
+                        Integer.parseInt(fields.get("year")), Integer.parseInt(fields.get("day")), Integer.parseInt(fields.get("part")),
+                        unquote(fields.get("solutionName")), unquote(fields.get("inputSuffix")), Integer.parseInt(fields.get("trials")),
+                        Long.parseLong(fields.get("medianNanos")), Long.parseLong(fields.get("p90Nanos")), Long.parseLong(fields.get("madNanos")),
+                        Long.parseLong(fields.get("allocatedBytes"))
+                );
+            } catch (NullPointerException | NumberFormatException e) {
+                throw new IllegalArgumentException("malformed baseline: %s".formatted(json), e);
+            }
+        }
+        private static String unquote(String quoted) {
+            String value = quoted.substring(1, quoted.length() - 1);
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != '\\') {
+                    result.append(c);
+                } else if (value.charAt(++i) == 'u') {
+                    result.append((char)Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                    i += 4;
+                } else {
+                    result.append(value.charAt(i));
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    public record Comparison(Baseline baseline, Baseline current, boolean isSlower, boolean isAllocatingMore) {
+        public boolean isRegression() {
+            return isSlower || isAllocatingMore;
+        }
+
+        public double slowdown() {
+            return (double)current.medianNanos() / Math.max(1, baseline.medianNanos());
+        }
+
+        @Override
+        public String toString() {
+            return "%s: median %s -> %s (%+.1f%%), p90 %s -> %s, allocated %d KB -> %d KB%s".formatted(
+                    current.key(), Duration.ofNanos(baseline.medianNanos()), Duration.ofNanos(current.medianNanos()), (slowdown() - 1) * 100,
+                    Duration.ofNanos(baseline.p90Nanos()), Duration.ofNanos(current.p90Nanos()), baseline.allocatedBytes() >> 10, current.allocatedBytes() >> 10,
+                    isRegression() ? " REGRESSION" + (isSlower ? " time" : "") + (isAllocatingMore ? " allocation" : "") : ""
+            );
+        }
+    }
+
+    public static Comparison compare(Baseline baseline, Baseline current) {
+        // noise of both runs, median absolute deviation scaled to standard deviation
+        double noiseNanos = MAD_TO_SIGMA * Math.hypot(baseline.madNanos(), current.madNanos());
+        long slowerNanos = current.medianNanos() - baseline.medianNanos();
+        boolean isSlower = slowerNanos > MIN_RELATIVE_SLOWDOWN * baseline.medianNanos() && slowerNanos > NOISE_DEVIATIONS * noiseNanos;
+        long moreBytes = current.allocatedBytes() - baseline.allocatedBytes();
+        boolean isAllocatingMore = moreBytes > MIN_RELATIVE_ALLOCATION * baseline.allocatedBytes() && moreBytes > MIN_ALLOCATION_BYTES;
+        return new Comparison(baseline, current, isSlower, isAllocatingMore);
+    }
+
+    /** Runs each solution of day (new instance, parsing, solving) warm-up and given count of trials, only solving is measured */
+    public static List<Baseline> measure(Supplier<Day> dayFactory, int trials) {
+        Day probe = dayFactory.get();
+        List<Baseline> result = new ArrayList<>();
+        for (SolverRegistry.Solution solution : Day.getSolutions(probe.getClass())) {
+            long[] nanos = new long[trials];
+            long[] allocated = new long[trials];
+            Object expected = null;
+            for (int trial = -WARMUP_TRIALS; trial < trials; trial++) {
+                Day day = dayFactory.get();
+                solution.parser().accept(day);
+                PartAccounting accounting = PartAccounting.start();
+                Object partResult = solution.solver().apply(day);
+                PartAccounting.Usage usage = accounting.finish();
+                if (trial == -WARMUP_TRIALS) {
+                    expected = partResult;
+                } else if (!Objects.equals(String.valueOf(expected), String.valueOf(partResult))) {
+                    throw new IllegalStateException("part %d solver \"%s\" gives different results %s and %s".formatted(solution.partNumber(), solution.solverName(), expected, partResult));
+                }
+                if (trial >= 0) {
+                    nanos[trial] = usage.elapsed().toNanos();
+                    allocated[trial] = usage.allocatedBytes();
+                }
+            }
+            long median = percentile(nanos, 50);
+            long[] deviations = Arrays.stream(nanos).map(n -> Math.abs(n - median)).toArray();
+            String solutionName = solution.solverName().trim().isEmpty() ? "default" : solution.solverName();
+            result.add(new Baseline(probe.getAocYear(), probe.getAocDay(), solution.partNumber(), solutionName, probe.getInputSuffix(), trials, median, percentile(nanos, 90), percentile(deviations, 50), percentile(allocated, 50)));
+            System.out.printf("### %s: median %s, p90 %s%n", result.getLast().key(), Duration.ofNanos(median), Duration.ofNanos(result.getLast().p90Nanos()));
+        }
+        return result;
+    }
+    /** Nearest-rank percentile */
+    static long percentile(long[] values, int percent) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int rank = (int)Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public static void save(Baseline baseline) {
+        try {
+            Files.createDirectories(baselinesPath);
+            Files.writeString(baselinesPath.resolve(baseline.fileName()), baseline.toJson() + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Stored baseline with the same key or null */
+    public static Baseline load(Baseline current) {
+        Path path = baselinesPath.resolve(current.fileName());
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return Baseline.fromJson(Files.readString(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        int trials = 7;
+        int trialsIndex = arguments.indexOf("-trials");
+        if (trialsIndex >= 0 && trialsIndex + 1 < arguments.size()) {
+            trials = Integer.parseInt(arguments.get(trialsIndex + 1));
+            arguments.subList(trialsIndex, trialsIndex + 2).clear();
+        }
+        if (arguments.size() < 2 || !List.of("record", "compare").contains(arguments.getFirst())) {
+            System.out.println("usage: PerformanceGate record|compare [-trials N] <day class>[:<input suffix>] ...");
+            System.exit(2);
+        }
+        boolean isRecord = arguments.getFirst().equals("record");
+        List<Comparison> comparisons = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String target : arguments.subList(1, arguments.size())) {
+            String[] classAndSuffix = target.split(":", 2);
+            Constructor<? extends Day> constructor = Class.forName(classAndSuffix[0]).asSubclass(Day.class).getConstructor(String.class);
+            String inputSuffix = classAndSuffix.length > 1 ? classAndSuffix[1] : "";
+            Supplier<Day> dayFactory = () -> {
+                try {
+                    return constructor.newInstance(inputSuffix);
+                } catch (ReflectiveOperationException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            for (Baseline current : measure(dayFactory, trials)) {
+                if (isRecord) {
+                    save(current);
+                    continue;
+                }
+                Baseline baseline = load(current);
+                if (baseline == null) {
+                    missing.add(current.key());
+                } else {
+                    comparisons.add(compare(baseline, current));
+                }
+            }
+        }
+        if (isRecord) {
+            System.out.printf("### baselines saved to %s%n", baselinesPath);
+            return;
+        }
+        comparisons.sort(Comparator.comparingDouble(Comparison::slowdown).reversed());
+        System.out.printf("%n### %d compared, biggest slowdowns first:%n", comparisons.size());
+        comparisons.forEach(comparison -> System.out.printf("### %s%n", comparison));
+        missing.forEach(key -> System.out.printf("### %s: no baseline%n", key));
+        long regressions = comparisons.stream().filter(Comparison::isRegression).count();
+        System.out.printf("### %d regressions%n", regressions);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    public static class PerformanceGateTest {
+        private static Baseline baseline(long medianMillis, long madMillis, long allocatedBytes) {
+            return new Baseline(2023, 16, 2, "flat \"grid\"", "_large1", 7, medianMillis * 1_000_000, medianMillis * 1_100_000, madMillis * 1_000_000, allocatedBytes);
+        }
+
+        @Test
+        void noiseAwareThresholds() {
+            assertFalse(compare(baseline(100, 1), baseline(108, 1)).isRegression()); // under 10%
+            assertTrue(compare(baseline(100, 1), baseline(115, 1)).isSlower());
+            assertFalse(compare(baseline(100, 10), baseline(115, 10)).isRegression()); // within noise
+            assertTrue(compare(baseline(100, 10), baseline(180, 10)).isSlower());
+            assertTrue(compare(baseline(100, 1, 10 << 20), baseline(100, 1, 12 << 20)).isAllocatingMore());
+            assertFalse(compare(baseline(100, 1, 100 << 10), baseline(100, 1, 900 << 10)).isRegression()); // under 1 MB
+        }
+        private static Baseline baseline(long medianMillis, long madMillis) {
+            return baseline(medianMillis, madMillis, 0);
+        }
+
+        @Test
+        void jsonRoundTrip() {
+            Baseline baseline = baseline(123, 4, 5678);
+            assertEquals(baseline, Baseline.fromJson(baseline.toJson()));
+        }
+
+        @Test
+        void percentiles() {
+            long[] values = { 5, 1, 4, 2, 3, 10, 6, 7, 9, 8 };
+            assertEquals(5, percentile(values, 50));
+            assertEquals(9, percentile(values, 90));
+            assertEquals(1, percentile(values, 0));
+        }
+    }
+}
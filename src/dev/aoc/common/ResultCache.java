@@ -0,0 +1,351 @@
+package dev.aoc.common;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Results of parts kept between runs, keyed by hash of input bytes, hash of bytecode of the day class and of all classes
+ * it references from the same class path location (nested and anonymous classes, shared solver code in dev.aoc.common,
+ * transitively), part number and parser and solver names. Changes of library jars are not detected.
+ * Entry keeps the result (as text), parse and solve timing and peak heap usage. Disabled by default, enable with system
+ * property -Daoc.resultCache=true or setEnabled.
+ * Entries are evicted by least recent use when there are more than -Daoc.resultCache.maxEntries (default 1000), last use
+ * of cache hits is written with the next stored result or by flush (at the end of Day.run).
+ * Invalidate with: ResultCache invalidate [year day]
+ */
+public class ResultCache {
+    private static volatile boolean enabled = Boolean.getBoolean("aoc.resultCache");
+    private static final Path defaultCachePath = Path.of("inputs/result-cache.properties");
+    private static int maxEntries = Integer.getInteger("aoc.resultCache.maxEntries", 1000);
+    private static Path cachePath = defaultCachePath;
+    private static final Map<Class<?>, String> bytecodeHashes = new ConcurrentHashMap<>();
+    private static final Pattern descriptorClass = Pattern.compile("L([\\w/$]+);");
+    private static Properties entries;
+    private static FileTime entriesModified;
+    private static final Map<String, Long> pendingUsedMillis = new HashMap<>(); // last use of hits, not yet written
+
+    public record Entry(String result, Duration parsing, Duration solving, long peakHeapBytes, long lastUsedMillis) {
+        private static Entry parse(String value) {
+            String[] fields = value.split(",", 5);
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("malformed cache entry: %s".formatted(value));
+            }
+            return new Entry(fields[4], Duration.ofNanos(Long.parseLong(fields[1])), Duration.ofNanos(Long.parseLong(fields[2])), Long.parseLong(fields[3]), Long.parseLong(fields[0]));
+        }
+        private String format() {
+            return "%d,%d,%d,%d,%s".formatted(lastUsedMillis, parsing.toNanos(), solving.toNanos(), peakHeapBytes, result);
+        }
+        private Entry used() {
+            return new Entry(result, parsing, solving, peakHeapBytes, System.currentTimeMillis());
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ResultCache.enabled = enabled;
+    }
+
+    /** Uses cache in given file with given limit of entries, entries not written yet are dropped */
+    static synchronized void setCachePath(Path cachePath, int maxEntries) {
+        ResultCache.cachePath = cachePath;
+        ResultCache.maxEntries = maxEntries;
+        entries = null;
+        entriesModified = null;
+        pendingUsedMillis.clear();
+    }
+
+    public static String key(int aocYear, int aocDay, byte[] input, Class<?> dayClass, int partNumber, String parserName, String solverName) {
+        return "%d-%02d:%s:%s:%d:%s:%s".formatted(aocYear, aocDay, Hashing.sha256().hashBytes(input), bytecodeHashes.computeIfAbsent(dayClass, key -> hashBytecode(dayClass.getClassLoader(), dayClass.getName())), partNumber, parserName, solverName);
+    }
+    private static String hashBytecode(ClassLoader classLoader, String dayClassName) {
+        // classes are followed through references in constant pools, only class files next to the day one are hashed
+        String dayClassFile = dayClassName.replace('.', '/') + ".class";
+        String dayUrl = String.valueOf(classLoader.getResource(dayClassFile));
+        String root = dayUrl.substring(0, dayUrl.length() - dayClassFile.length());
+        Map<String, byte[]> bytecodes = new TreeMap<>();
+        Deque<String> toVisit = new ArrayDeque<>(List.of(dayClassName.replace('.', '/')));
+        while (!toVisit.isEmpty()) {
+            String className = toVisit.removeFirst();
+            if (bytecodes.containsKey(className)) {
+                continue;
+            }
+            URL url = classLoader.getResource(className + ".class");
+            if (url == null || !url.toString().equals(root + className + ".class")) {
+                continue; // JDK or library class
+            }
+            try (InputStream bytecode = url.openStream()) {
+                byte[] bytes = bytecode.readAllBytes();
+                bytecodes.put(className, bytes);
+                toVisit.addAll(getReferencedClasses(bytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Hasher hasher = Hashing.sha256().newHasher();
+        bytecodes.forEach((className, bytes) -> {
+            hasher.putString(className, StandardCharsets.UTF_8);
+            hasher.putBytes(bytes);
+        });
+        return hasher.hash().toString();
+    }
+    /** Names of classes in constant pool of class file: class entries and class types in descriptors */
+    private static Set<String> getReferencedClasses(byte[] bytecode) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytecode));
+        in.skipNBytes(8); // magic, minor and major version
+        int count = in.readUnsignedShort();
+        String[] utf8s = new String[count];
+        List<Integer> classNameIndices = new ArrayList<>();
+        for (int index = 1; index < count; index++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8s[index] = in.readUTF();
+                case 7 -> classNameIndices.add(in.readUnsignedShort());
+                case 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    index++; // takes two entries
+                }
+                default -> throw new IllegalArgumentException("unknown constant pool tag %d".formatted(tag));
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (int classNameIndex : classNameIndices) {
+            if (!utf8s[classNameIndex].startsWith("[")) {
+                result.add(utf8s[classNameIndex]);
+            }
+        }
+        for (String utf8 : utf8s) {
+            if (utf8 != null && utf8.indexOf(';') >= 0) {
+                Matcher matcher = descriptorClass.matcher(utf8);
+                while (matcher.find()) {
+                    result.add(matcher.group(1));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns cached entry (marking it as recently used) or null */
+    public static synchronized Entry get(String key) {
+        String value = entries().getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        Entry entry = Entry.parse(value).used();
+        pendingUsedMillis.put(key, entry.lastUsedMillis());
+        return entry;
+    }
+
+    public static synchronized void put(String key, Object result, Duration parsing, Duration solving, long peakHeapBytes) {
+        Properties entries = entries();
+        applyPendingUsed(entries);
+        entries.setProperty(key, new Entry(String.valueOf(result), parsing, solving, peakHeapBytes, System.currentTimeMillis()).format());
+        if (entries.size() > maxEntries) {
+            entries.stringPropertyNames().stream()
+                    .sorted(Comparator.comparingLong(k -> Entry.parse(entries.getProperty(k)).lastUsedMillis()))
+                    .limit(entries.size() - maxEntries)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+        save(entries);
+    }
+
+    /** Writes last use of cache hits not written yet */
+    public static synchronized void flush() {
+        if (pendingUsedMillis.isEmpty()) {
+            return;
+        }
+        Properties entries = entries();
+        applyPendingUsed(entries);
+        save(entries);
+    }
+
+    private static void applyPendingUsed(Properties entries) {
+        pendingUsedMillis.forEach((key, usedMillis) -> {
+            String value = entries.getProperty(key);
+            if (value != null) {
+                Entry entry = Entry.parse(value);
+                entries.setProperty(key, new Entry(entry.result(), entry.parsing(), entry.solving(), entry.peakHeapBytes(), usedMillis).format());
+            }
+        });
+        pendingUsedMillis.clear();
+    }
+
+    /** Removes all entries, or only entries of given day if year and day are given, returns count of removed entries */
+    public static synchronized int invalidate(Integer aocYear, Integer aocDay) {
+        Properties entries = entries();
+        String prefix = aocYear != null && aocDay != null ? "%d-%02d:".formatted(aocYear, aocDay) : "";
+        List<String> removed = entries.stringPropertyNames().stream().filter(key -> key.startsWith(prefix)).toList();
+        removed.forEach(entries::remove);
+        save(entries);
+        return removed.size();
+    }
+
+    /** Entries loaded from file, loaded again only when the file was changed meanwhile (e.g. by other process) */
+    private static Properties entries() {
+        try {
+            FileTime modified = Files.exists(cachePath) ? Files.getLastModifiedTime(cachePath) : null;
+            if (entries == null || !Objects.equals(modified, entriesModified)) {
+                entries = new Properties();
+                if (modified != null) {
+                    try (Reader reader = Files.newBufferedReader(cachePath)) {
+                        entries.load(reader);
+                    }
+                }
+                entriesModified = modified;
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Writes entries to temporary file moved in place atomically, so crash cannot leave the cache truncated */
+    private static void save(Properties entries) {
+        try {
+            Path temporaryPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), cachePath.getFileName().toString() + ".", ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temporaryPath)) {
+                    entries.store(writer, "results of parts: year-day:input hash:bytecode hash:part:parser:solver = last used,parse ns,solve ns,peak heap,result");
+                }
+                Files.move(temporaryPath, cachePath, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+            entriesModified = Files.getLastModifiedTime(cachePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !args[0].equals("invalidate") || (args.length != 1 && args.length != 3)) {
+            System.out.println("usage: ResultCache invalidate [year day]");
+            return;
+        }
+        int removed = args.length == 3 ? invalidate(Integer.parseInt(args[1]), Integer.parseInt(args[2])) : invalidate(null, null);
+        System.out.printf("removed %d cached results%n", removed);
+    }
+
+    public static class ResultCacheTest {
+        private Path temporaryPath;
+
+        @BeforeEach
+        void useTemporaryCache() throws IOException {
+            temporaryPath = Files.createTempDirectory("cache");
+            setCachePath(temporaryPath.resolve("result-cache.properties"), 2);
+        }
+
+        @AfterEach
+        void useDefaultCache() {
+            setCachePath(defaultCachePath, Integer.getInteger("aoc.resultCache.maxEntries", 1000));
+        }
+
+        private static void put(String key, Object result) throws InterruptedException {
+            ResultCache.put(key, result, Duration.ofMillis(1), Duration.ofMillis(2), 3);
+            Thread.sleep(5); // next use is later
+        }
+
+        @Test
+        void evictsLeastRecentlyUsed() throws InterruptedException, IOException {
+            put("2023-01:a", 1);
+            put("2023-01:b", 2);
+            assertEquals("1", get("2023-01:a").result()); // a used after b
+            Thread.sleep(5);
+            put("2023-01:c", 3);
+            assertNull(get("2023-01:b"));
+            assertEquals(new Entry("1", Duration.ofMillis(1), Duration.ofMillis(2), 3, 0), withoutLastUse(get("2023-01:a")));
+            assertEquals("3", get("2023-01:c").result());
+            try (var files = Files.list(temporaryPath)) {
+                assertEquals(List.of(temporaryPath.resolve("result-cache.properties")), files.toList()); // no temporary file left
+            }
+        }
+
+        private static Entry withoutLastUse(Entry entry) {
+            return new Entry(entry.result(), entry.parsing(), entry.solving(), entry.peakHeapBytes(), 0);
+        }
+
+        @Test
+        void invalidatesDayOrAll() throws InterruptedException {
+            setCachePath(temporaryPath.resolve("result-cache.properties"), 10);
+            put("2023-01:a", 1);
+            put("2023-02:a", 2);
+            put("2023-02:b", 3);
+            assertEquals(2, invalidate(2023, 2));
+            assertNull(get("2023-02:a"));
+            assertEquals("1", get("2023-01:a").result());
+            assertEquals(1, invalidate(null, null));
+            assertNull(get("2023-01:a"));
+        }
+
+        @Test
+        void keyOfInput() {
+            String key = key(2023, 1, "1\n".getBytes(StandardCharsets.UTF_8), ResultCache.class, 1, "default", "default");
+            assertEquals(key, key(2023, 1, "1\n".getBytes(StandardCharsets.UTF_8), ResultCache.class, 1, "default", "default"));
+            assertNotEquals(key, key(2023, 1, "2\n".getBytes(StandardCharsets.UTF_8), ResultCache.class, 1, "default", "default"));
+            assertNotEquals(key, key(2023, 1, "1\n".getBytes(StandardCharsets.UTF_8), ResultCache.class, 2, "default", "default"));
+        }
+
+        /** Compiles day class referencing helper (by call and in descriptor) and unrelated class, returns class path directory */
+        private Path compile(int helperResult, int otherResult) throws IOException {
+            Path sources = temporaryPath.resolve("src%d%d".formatted(helperResult, otherResult));
+            Path classes = temporaryPath.resolve("classes%d%d".formatted(helperResult, otherResult));
+            Files.createDirectories(sources.resolve("p"));
+            Files.writeString(sources.resolve("p/DayX.java"), "package p; public class DayX { long solve(Helper helper) { return Helper.value(); } }");
+            Files.writeString(sources.resolve("p/Helper.java"), "package p; public class Helper { static long value() { return %d; } }".formatted(helperResult));
+            Files.writeString(sources.resolve("p/Other.java"), "package p; public class Other { static long value() { return %d; } }".formatted(otherResult));
+            int status = javax.tools.ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", classes.toString(),
+                    sources.resolve("p/DayX.java").toString(), sources.resolve("p/Helper.java").toString(), sources.resolve("p/Other.java").toString());
+            assertEquals(0, status);
+            return classes;
+        }
+
+        private static String hashBytecode(Path classes) throws IOException {
+            try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+                return ResultCache.hashBytecode(loader, "p.DayX");
+            }
+        }
+
+        @Test
+        void keyOfReferencedBytecode() throws IOException {
+            String hash = hashBytecode(compile(1, 1));
+            assertEquals(hash, hashBytecode(compile(1, 2))); // not referenced by day
+            assertNotEquals(hash, hashBytecode(compile(2, 1)));
+        }
+
+        @Test
+        void referencedClasses() throws IOException {
+            Path classes = compile(1, 1);
+            Set<String> referenced = getReferencedClasses(Files.readAllBytes(classes.resolve("p/DayX.class")));
+            assertTrue(referenced.containsAll(Set.of("p/DayX", "p/Helper", "java/lang/Object")), referenced.toString());
+            assertFalse(referenced.contains("p/Other"));
+            // class file of this project, with generic signatures and lambdas
+            referenced = getReferencedClasses(ResultCache.class.getResourceAsStream("ResultCache.class").readAllBytes());
+            assertTrue(referenced.containsAll(Set.of("dev/aoc/common/ResultCache$Entry", "java/time/Duration", "java/util/Properties")), referenced.toString());
+        }
+    }
+}
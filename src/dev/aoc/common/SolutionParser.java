@@ -11,4 +11,6 @@ import java.lang.annotation.Target;
 public @interface SolutionParser {
     public int partNumber();
     public String solutionName() default "default";
+    /** Parsed structures are stored in snapshot and loaded on next run with the same input, day must implement ParseSnapshot */
+    public boolean snapshot() default false;
 }
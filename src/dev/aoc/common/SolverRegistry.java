@@ -0,0 +1,112 @@
+package dev.aoc.common;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parsers and solvers of a day paired by solution name, generated at build time by {@link SolverRegistryProcessor} as class
+ * DayNN_SolverRegistry next to the day, with direct calls instead of reflection. Day.run uses generated registry when it
+ * is compiled, otherwise it finds annotated methods by reflection (build must run the processor, see SolverRegistryProcessor).
+ * Registry left over from build with processor, with the day class compiled later without processor, is stale and not used:
+ * it is detected without reflection by class file of the day being modified later than class file of the registry.
+ * Registry also keeps fingerprint of annotated methods it was generated from, with system property
+ * -Daoc.solverRegistry.verify=true (or setVerified) the fingerprint is checked against annotated methods of the day found
+ * by reflection, which also detects day class recompiled without processor within the same seconds as the registry.
+ */
+public abstract class SolverRegistry {
+    static final String CLASS_SUFFIX = "_SolverRegistry";
+    private static final long STALE_MILLIS = 2000; // class files of one build are written within this time, jar entries keep 2s precision
+    private static volatile boolean verified = Boolean.getBoolean("aoc.solverRegistry.verify");
+
+    public static boolean isVerified() {
+        return verified;
+    }
+
+    /** Turns fingerprint check of registries loaded from now on, on or off */
+    public static void setVerified(boolean verified) {
+        SolverRegistry.verified = verified;
+    }
+
+    public record Solution(int partNumber, String parserName, String solverName, boolean snapshot, Consumer<Day> parser, Function<Day, Object> solver) {}
+
+    public abstract int getYear();
+
+    public abstract int getDay();
+
+    /** Solutions in order of parts */
+    public abstract List<Solution> getSolutions();
+
+    /** Fingerprint of annotated methods the registry was generated from, see fingerprint */
+    public abstract String getFingerprint();
+
+    /** Annotated method as part of fingerprint */
+    static String fingerprintEntry(boolean isParser, int partNumber, String solutionName, boolean snapshot, String methodName) {
+        return "%s%d:%s:%s%s".formatted(isParser ? "P" : "S", partNumber, solutionName.trim().isEmpty() ? "default" : solutionName, methodName, snapshot ? ":snapshot" : "");
+    }
+    /** Order independent fingerprint of annotated methods */
+    static String fingerprint(Stream<String> entries) {
+        return entries.sorted().collect(Collectors.joining(";"));
+    }
+    /** Fingerprint of annotated methods of day class found by reflection */
+    static String fingerprint(Class<?> dayClass) {
+        return fingerprint(Arrays.stream(dayClass.getDeclaredMethods()).<String>mapMulti((Method method, Consumer<String> entries) -> {
+            SolutionParser parser = method.getDeclaredAnnotation(SolutionParser.class);
+            if (parser != null) {
+                entries.accept(fingerprintEntry(true, parser.partNumber(), parser.solutionName(), parser.snapshot(), method.getName()));
+            }
+            SolutionSolver solver = method.getDeclaredAnnotation(SolutionSolver.class);
+            if (solver != null) {
+                entries.accept(fingerprintEntry(false, solver.partNumber(), solver.solutionName(), false, method.getName()));
+            }
+        }));
+    }
+
+    private static final ClassValue<SolverRegistry> registries = new ClassValue<>() {
+        @Override
+        protected SolverRegistry computeValue(Class<?> dayClass) {
+            try {
+                Class<?> registryClass = Class.forName(dayClass.getName() + CLASS_SUFFIX, true, dayClass.getClassLoader());
+                SolverRegistry registry = (SolverRegistry)registryClass.getDeclaredConstructor().newInstance();
+                if (getClassFileModified(dayClass) > getClassFileModified(registryClass) + STALE_MILLIS
+                        || verified && !registry.getFingerprint().equals(fingerprint(dayClass))) {
+                    System.out.printf("### stale solver registry of %s (day compiled without annotation processor), using reflection%n", dayClass.getSimpleName());
+                    return null;
+                }
+                return registry;
+            } catch (ClassNotFoundException e) {
+                System.out.printf("### no solver registry of %s (annotation processing is off, see SolverRegistryProcessor), using reflection%n", dayClass.getSimpleName());
+                return null;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("could not create solver registry of %s".formatted(dayClass.getName()), e);
+            }
+        }
+    };
+
+    /** Last modification of class file of given class in milliseconds, 0 if not known (class not loaded from file) */
+    private static long getClassFileModified(Class<?> someClass) {
+        URL url = someClass.getResource(someClass.getName().substring(someClass.getName().lastIndexOf('.') + 1) + ".class");
+        if (url == null || !url.getProtocol().equals("file")) {
+            return 0;
+        }
+        try {
+            return Files.getLastModifiedTime(Path.of(url.toURI())).toMillis();
+        } catch (IOException | URISyntaxException e) {
+            return 0;
+        }
+    }
+
+    /** Generated registry of day class or null */
+    public static SolverRegistry of(Class<?> dayClass) {
+        return registries.get(dayClass);
+    }
+}
@@ -0,0 +1,310 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.*;
+import java.io.*;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates {@link SolverRegistry} of each day class with {@link SolutionParser} and {@link SolutionSolver} methods and
+ * checks pairing rules at build time: one solver per name, a parser of the same name or a single default parser, parsers
+ * and solvers are instance methods without parameters, snapshot parsers only in days implementing ParseSnapshot.
+ * Broken rule fails the build, redundant parsers give a warning.
+ * Required build step, without it Day.run finds parsers and solvers by reflection (and says so). The processor is part of
+ * the module, so it is compiled by the first build and used by the following ones:
+ * - IntelliJ: Settings | Build, Execution, Deployment | Compiler | Annotation Processors, enable annotation processing for
+ *   module "Advent of Code", processor path: out/production/Advent of Code (with guava, javatuples and junit jars),
+ *   processor FQ name: dev.aoc.common.SolverRegistryProcessor, then Build | Rebuild Project twice.
+ * - javac: compile sources with -proc:none to out, then again with
+ *   -processorpath out:(libraries) -processor dev.aoc.common.SolverRegistryProcessor -s (generated sources) -d out
+ */
+@SupportedAnnotationTypes({"dev.aoc.common.SolutionParser", "dev.aoc.common.SolutionSolver"})
+public class SolverRegistryProcessor extends AbstractProcessor {
+    private static final String DEFAULT_NAME = "default";
+    private static final Pattern yearDayPattern = Pattern.compile(".+?aoc(\\d+)\\.Day(\\d+)");
+
+    private record Annotated(ExecutableElement method, int partNumber, String solutionName, boolean snapshot) {}
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<Annotated>> parsersPerDay = new LinkedHashMap<>();
+        Map<TypeElement, List<Annotated>> solversPerDay = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(SolutionParser.class)) {
+            SolutionParser parser = element.getAnnotation(SolutionParser.class);
+            add(parsersPerDay, element, parser.partNumber(), parser.solutionName(), parser.snapshot());
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(SolutionSolver.class)) {
+            SolutionSolver solver = element.getAnnotation(SolutionSolver.class);
+            add(solversPerDay, element, solver.partNumber(), solver.solutionName(), false);
+        }
+        Set<TypeElement> days = new LinkedHashSet<>(parsersPerDay.keySet());
+        days.addAll(solversPerDay.keySet());
+        for (TypeElement day : days) {
+            generate(day, parsersPerDay.getOrDefault(day, List.of()), solversPerDay.getOrDefault(day, List.of()));
+        }
+        return true;
+    }
+
+    private void add(Map<TypeElement, List<Annotated>> perDay, Element element, int partNumber, String solutionName, boolean snapshot) {
+        ExecutableElement method = (ExecutableElement)element;
+        TypeElement day = (TypeElement)method.getEnclosingElement();
+        if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+            error(method, "parser/solver must be non-private instance method");
+        } else if (!method.getParameters().isEmpty()) {
+            error(method, "parser/solver must have no parameters");
+        } else if (!method.getThrownTypes().isEmpty()) {
+            error(method, "parser/solver must not declare checked exceptions");
+        } else {
+            String name = solutionName.trim().isEmpty() ? DEFAULT_NAME : solutionName;
+            perDay.computeIfAbsent(day, d -> new ArrayList<>()).add(new Annotated(method, partNumber, name, snapshot));
+        }
+    }
+
+    private void generate(TypeElement day, List<Annotated> parsers, List<Annotated> solvers) {
+        TypeMirror dayBase = processingEnv.getElementUtils().getTypeElement(Day.class.getCanonicalName()).asType();
+        if (!processingEnv.getTypeUtils().isAssignable(day.asType(), dayBase)) {
+            error(day, "class with parsers/solvers must extend Day");
+            return;
+        }
+        if (day.getNestingKind() != NestingKind.TOP_LEVEL) {
+            error(day, "solver registry is generated only for top-level day classes");
+            return;
+        }
+        Matcher matcher = yearDayPattern.matcher(day.getQualifiedName());
+        if (!matcher.matches()) {
+            error(day, "could not match year-day to full class name");
+            return;
+        }
+        TypeMirror parseSnapshot = processingEnv.getElementUtils().getTypeElement(ParseSnapshot.class.getCanonicalName()).asType();
+        boolean isParseSnapshot = processingEnv.getTypeUtils().isAssignable(day.asType(), parseSnapshot);
+        List<String> solutions = new ArrayList<>();
+        var partNumbers = new TreeSet<>(parsers.stream().map(Annotated::partNumber).toList());
+        for (int partNumber : partNumbers) {
+            var partParsersPerName = parsers.stream().filter(a -> a.partNumber() == partNumber).collect(Collectors.groupingBy(Annotated::solutionName, LinkedHashMap::new, Collectors.toList()));
+            var partSolvers = solvers.stream().filter(a -> a.partNumber() == partNumber).toList();
+            if (partSolvers.isEmpty()) {
+                continue;
+            }
+            var partSolversPerName = partSolvers.stream().collect(Collectors.groupingBy(Annotated::solutionName, LinkedHashMap::new, Collectors.toList()));
+            var defaultParsers = partParsersPerName.getOrDefault(DEFAULT_NAME, List.of());
+            boolean defaultParserUsed = false;
+            for (var solversOfName : partSolversPerName.entrySet()) {
+                String solverName = solversOfName.getKey();
+                Annotated solver = solversOfName.getValue().getFirst();
+                if (solversOfName.getValue().size() > 1) {
+                    error(solversOfName.getValue().get(1).method(), "part %d solvers name collision for name %s".formatted(partNumber, solverName));
+                    continue;
+                }
+                var parsersOfName = partParsersPerName.remove(solverName);
+                Annotated parser;
+                if (parsersOfName == null) {
+                    if (defaultParsers.size() != 1) {
+                        error(solver.method(), "part %d %s for name %s".formatted(partNumber, defaultParsers.isEmpty() ? "default parser missing" : "too many default parsers (%d)".formatted(defaultParsers.size()), solverName));
+                        continue;
+                    }
+                    parser = defaultParsers.getFirst();
+                    defaultParserUsed = true;
+                } else if (parsersOfName.size() > 1) {
+                    error(parsersOfName.get(1).method(), "part %d parsers name collision for name %s".formatted(partNumber, solverName));
+                    continue;
+                } else {
+                    parser = parsersOfName.getFirst();
+                }
+                if (parser.snapshot() && !isParseSnapshot) {
+                    error(parser.method(), "snapshot parser in day not implementing ParseSnapshot");
+                    continue;
+                }
+                if (solver.method().getReturnType().getKind() == TypeKind.VOID) {
+                    error(solver.method(), "solver must return result");
+                    continue;
+                }
+                solutions.add("new Solution(%d, %s, %s, %b, day -> ((%s)day).%s(), day -> ((%s)day).%s())".formatted(
+                        partNumber, literal(parser.solutionName()), literal(solverName), parser.snapshot(),
+                        day.getSimpleName(), parser.method().getSimpleName(), day.getSimpleName(), solver.method().getSimpleName()
+                ));
+            }
+            if (defaultParserUsed) {
+                partParsersPerName.remove(DEFAULT_NAME);
+            }
+            if (!partParsersPerName.isEmpty()) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "part %d redundant parsers found: %s".formatted(partNumber, String.join(", ", partParsersPerName.keySet())), day);
+            }
+        }
+        String fingerprint = SolverRegistry.fingerprint(Stream.concat(
+                parsers.stream().map(a -> SolverRegistry.fingerprintEntry(true, a.partNumber(), a.solutionName(), a.snapshot(), a.method().getSimpleName().toString())),
+                solvers.stream().map(a -> SolverRegistry.fingerprintEntry(false, a.partNumber(), a.solutionName(), false, a.method().getSimpleName().toString()))
+        ));
+        writeRegistry(day, parseInt(matcher.group(1)), parseInt(matcher.group(2)), solutions, fingerprint);
+    }
+    private static int parseInt(String value) {
+        return Integer.parseInt(value);
+    }
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private void writeRegistry(TypeElement day, int year, int dayNumber, List<String> solutions, String fingerprint) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(day).getQualifiedName().toString();
+        String className = day.getSimpleName() + SolverRegistry.CLASS_SUFFIX;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName + "." + className, day).openWriter()) {
+            writer.write("""
+                    package %s;
+
+                    import dev.aoc.common.SolverRegistry;
+
+                    import java.util.List;
+
+                    /** Generated by SolverRegistryProcessor from annotated methods of %s, do not edit */
+                    public final class %s extends SolverRegistry {
+                        private static final List<Solution> solutions = List.of(
+                    %s
+                        );
+
+                        @Override
+                        public int getYear() {
+                            return %d;
+                        }
+
+                        @Override
+                        public int getDay() {
+                            return %d;
+                        }
+
+                        @Override
+                        public List<Solution> getSolutions() {
+                            return solutions;
+                        }
+
+                        @Override
+                        public String getFingerprint() {
+                            return %s;
+                        }
+                    }
+                    """.formatted(packageName, day.getSimpleName(), className, solutions.stream().map(s -> "            " + s).collect(Collectors.joining(",\n")), year, dayNumber, literal(fingerprint)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    public static class SolverRegistryProcessorTest {
+        private static final String header = """
+                package dev.aoc.aoc2099;
+                import dev.aoc.common.*;
+                public class Day07 extends Day {
+                    public Day07() { super(java.util.List.of("x")); }
+                """;
+
+        /** Compiles source of Day07 with the processor (annotation processing given by proc option), returns diagnostics, generated sources are in output */
+        private static List<Diagnostic<? extends JavaFileObject>> compile(String body, Path output, String proc) throws IOException {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///dev/aoc/aoc2099/Day07.java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return header + body + "}\n";
+                }
+            };
+            // test runners may load classes by their own class loader, so add location of Day to class path
+            String classPath = System.getProperty("java.class.path") + File.pathSeparator + Path.of(URI.create(Day.class.getProtectionDomain().getCodeSource().getLocation().toString()));
+            List<String> options = List.of("-classpath", classPath, "-d", output.toString(), "-s", output.toString(), proc);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(source));
+            task.setProcessors(List.of(new SolverRegistryProcessor()));
+            task.call();
+            return diagnostics.getDiagnostics();
+        }
+
+        @Test
+        void generatesRegistry() throws IOException {
+            Path output = Files.createTempDirectory("registry");
+            var diagnostics = compile("""
+                        @SolutionParser(partNumber = 1) public void parse() {}
+                        @SolutionParser(partNumber = 2, solutionName = "fast") public void parseFast() {}
+                        @SolutionSolver(partNumber = 1) public long solvePart1() { return 1; }
+                        @SolutionSolver(partNumber = 2, solutionName = "fast") public Object solveFast() { return 2; }
+                    """, output, "-proc:only");
+            assertEquals(List.of(), diagnostics.stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).toList());
+            String generated = Files.readString(output.resolve("dev/aoc/aoc2099/Day07_SolverRegistry.java"));
+            assertTrue(generated.contains("return 2099;"));
+            assertTrue(generated.contains("return 7;"));
+            assertTrue(generated.contains("new Solution(1, \"default\", \"default\", false, day -> ((Day07)day).parse(), day -> ((Day07)day).solvePart1())"));
+            assertTrue(generated.contains("new Solution(2, \"fast\", \"fast\", false, day -> ((Day07)day).parseFast(), day -> ((Day07)day).solveFast())"));
+        }
+
+        @Test
+        void pairingErrors() throws IOException {
+            Path output = Files.createTempDirectory("registry");
+            var diagnostics = compile("""
+                        @SolutionParser(partNumber = 1, solutionName = "a") public void parseA() {}
+                        @SolutionSolver(partNumber = 1) public long solve() { return 1; }
+                        @SolutionSolver(partNumber = 1, solutionName = "a") public long solveA1() { return 1; }
+                        @SolutionSolver(partNumber = 1, solutionName = "a") public long solveA2() { return 1; }
+                    """, output, "-proc:only");
+            var errors = diagnostics.stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).map(d -> d.getMessage(Locale.ROOT)).toList();
+            assertEquals(List.of("part 1 default parser missing for name default", "part 1 solvers name collision for name a"), errors);
+        }
+
+        @Test
+        void staleRegistryIgnored() throws IOException, ReflectiveOperationException {
+            String body = """
+                        @SolutionParser(partNumber = 1) public void parse() {}
+                        @SolutionSolver(partNumber = 1) public long solvePart1() { return 1; }
+                    """;
+            Path fresh = Files.createTempDirectory("registry");
+            assertEquals(List.of(), compile(body, fresh, "-proc:full").stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).toList());
+            Path stale = Files.createTempDirectory("registry");
+            assertEquals(List.of(), compile(body, stale, "-proc:full").stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).toList());
+            // solver renamed and day recompiled later without processor, registry class of previous build is left over
+            assertEquals(List.of(), compile(body.replace("solvePart1", "solveRenamed"), stale, "-proc:none").stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).toList());
+            Path staleDayClass = stale.resolve("dev/aoc/aoc2099/Day07.class");
+            FileTime registryModified = Files.getLastModifiedTime(stale.resolve("dev/aoc/aoc2099/Day07_SolverRegistry.class"));
+            Files.setLastModifiedTime(staleDayClass, FileTime.fromMillis(registryModified.toMillis() + 60_000));
+            for (var output : List.of(fresh, stale)) {
+                assertEquals(output == fresh, isRegistryUsed(output), output.toString());
+            }
+            // recompiled within the same seconds, only fingerprint of annotated methods tells
+            Files.setLastModifiedTime(staleDayClass, registryModified);
+            assertTrue(isRegistryUsed(stale));
+            SolverRegistry.setVerified(true);
+            try {
+                assertFalse(isRegistryUsed(stale));
+                assertTrue(isRegistryUsed(fresh));
+            } finally {
+                SolverRegistry.setVerified(false);
+            }
+        }
+
+        /** Loads Day07 from given output by new class loader, so its registry is looked up again */
+        private static boolean isRegistryUsed(Path output) throws IOException, ClassNotFoundException {
+            try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toUri().toURL()}, Day.class.getClassLoader())) {
+                return SolverRegistry.of(loader.loadClass("dev.aoc.aoc2099.Day07")) != null;
+            }
+        }
+    }
+}
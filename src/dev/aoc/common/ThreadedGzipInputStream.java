@@ -0,0 +1,189 @@
+package dev.aoc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gzip file decompressed by separate thread ahead of the reader. Inflated chunks of 1MB are handed over through queue
+ * of 8 chunks, so parsing runs in parallel with inflating and memory stays bounded. Failure of decompression (any exception
+ * or error of inflater thread, wrapped in IOException if needed) is thrown to the reader when it gets to the end of data
+ * inflated before the failure.
+ */
+public class ThreadedGzipInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int QUEUED_CHUNKS = 8;
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    private final Thread inflater;
+    private volatile IOException failure;
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean isEnded;
+
+    public ThreadedGzipInputStream(Path path) throws IOException {
+        // header is read here, so missing file or file that is not gzip fails in the caller
+        this(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), 1 << 16), "gunzip " + path.getFileName());
+    }
+
+    /** Reads given inflating stream by thread of given name */
+    ThreadedGzipInputStream(InputStream inflating, String threadName) {
+        inflater = Thread.ofPlatform().daemon().name(threadName).start(() -> inflate(inflating));
+    }
+
+    private void inflate(InputStream compressed) {
+        boolean isClosed = false;
+        try (compressed) {
+            byte[] buffer;
+            while ((buffer = compressed.readNBytes(CHUNK_SIZE)).length > 0) {
+                chunks.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            isClosed = true; // closed by reader, nobody waits for the end
+        } catch (IOException e) {
+            failure = e;
+        } catch (Throwable e) {
+            failure = new IOException("decompression failed", e);
+        } finally {
+            if (!isClosed) {
+                try {
+                    chunks.put(END); // reader must not wait forever, whatever stopped inflating
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Moves to next chunk, false at the end */
+    private boolean nextChunk() throws IOException {
+        if (isEnded) {
+            return false;
+        }
+        try {
+            chunk = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for inflated data");
+        }
+        position = 0;
+        if (chunk == END) {
+            isEnded = true;
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (position == chunk.length) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (position == chunk.length) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        int count = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        inflater.interrupt();
+        isEnded = true;
+        chunk = END;
+        position = 0;
+    }
+
+    public static class ThreadedGzipInputStreamTest {
+        private static Path gzip(byte[] data) throws IOException {
+            Path path = Files.createTempFile("input", ".txt.gz");
+            path.toFile().deleteOnExit();
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+                out.write(data);
+            }
+            return path;
+        }
+
+        @Test
+        void multipleChunks() throws IOException {
+            // more than all queued chunks, so inflater waits for reader
+            var rng = new Random(50);
+            StringBuilder lines = new StringBuilder();
+            while (lines.length() < 12 * CHUNK_SIZE) {
+                lines.append(rng.nextInt(1_000_000)).append("\r\n");
+            }
+            byte[] data = lines.toString().getBytes(StandardCharsets.UTF_8);
+            try (InputStream in = new ThreadedGzipInputStream(gzip(data))) {
+                assertEquals(data[0], in.read());
+                byte[] rest = in.readAllBytes();
+                assertArrayEquals(Arrays.copyOfRange(data, 1, data.length), rest);
+                assertEquals(-1, in.read());
+            }
+        }
+
+        @Test
+        void truncatedFileFails() throws IOException {
+            byte[] compressed = Files.readAllBytes(gzip("#.#\n".repeat(100_000).getBytes(StandardCharsets.UTF_8)));
+            Path truncated = Files.createTempFile("input", ".txt.gz");
+            truncated.toFile().deleteOnExit();
+            Files.write(truncated, Arrays.copyOf(compressed, compressed.length / 2));
+            try (InputStream in = new ThreadedGzipInputStream(truncated)) {
+                assertThrows(EOFException.class, in::readAllBytes);
+            }
+        }
+
+        @Test
+        void inflaterErrorFails() {
+            // error other than IOException, after some data, must still end the stream for the reader
+            byte[] data = "#.#\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+            InputStream failing = new SequenceInputStream(new ByteArrayInputStream(data), new InputStream() {
+                @Override
+                public int read() {
+                    throw new OutOfMemoryError("test");
+                }
+            });
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                try (InputStream in = new ThreadedGzipInputStream(failing, "failing")) {
+                    IOException e = assertThrows(IOException.class, in::readAllBytes);
+                    assertInstanceOf(OutOfMemoryError.class, e.getCause());
+                }
+            });
+        }
+    }
+}
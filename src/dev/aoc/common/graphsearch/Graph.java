@@ -5,4 +5,16 @@ import java.util.Set;
 public interface Graph<T extends GraphNode> {
     T getNode(long id);
     Set<T> getEdges(T node);
+
+    @FunctionalInterface
+    interface EdgeConsumer<T> {
+        void accept(T nextNode, long cost);
+    }
+    /** Pushes every neighbour of node, with cost of edge computed by scorer (0 if scorer is null), into consumer.
+     * Default implementation goes through getEdges, graphs should override it to avoid allocating a set per call. */
+    default void forEachEdge(T node, Scorer<T> scorer, EdgeConsumer<T> consumer) {
+        for (T nextNode : getEdges(node)) {
+            consumer.accept(nextNode, scorer != null ? scorer.computeCost(node, nextNode) : 0);
+        }
+    }
 }
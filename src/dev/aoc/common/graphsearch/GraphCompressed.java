@@ -0,0 +1,37 @@
+package dev.aoc.common.graphsearch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Static graph with weighted edges, as produced by {@link GraphCompressor} */
+public class GraphCompressed<T extends GraphNode> extends GraphStatic<T> {
+    protected final Map<Long, Map<Long, Long>> weights;
+
+    public GraphCompressed() {
+        super();
+        weights = new HashMap<>();
+    }
+
+    public void addEdge(T fromNode, T toNode, long weight) {
+        addEdge(fromNode, toNode);
+        weights.computeIfAbsent(fromNode.getId(), id -> new HashMap<>()).put(toNode.getId(), weight);
+    }
+
+    public boolean hasEdge(T fromNode, T toNode) {
+        return weights.containsKey(fromNode.getId()) && weights.get(fromNode.getId()).containsKey(toNode.getId());
+    }
+
+    public long getWeight(T fromNode, T toNode) {
+        Map<Long, Long> fromWeights = weights.get(fromNode.getId());
+        Long weight = fromWeights != null ? fromWeights.get(toNode.getId()) : null;
+        if (weight == null) {
+            throw new IllegalArgumentException("no edge from %s to %s".formatted(fromNode, toNode));
+        }
+        return weight;
+    }
+
+    /** Scorer returning weight of edge between nodes */
+    public Scorer<T> getScorer() {
+        return this::getWeight;
+    }
+}
@@ -0,0 +1,170 @@
+package dev.aoc.common.graphsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contracts chains of degree-2 nodes (corridors) into single weighted edges between kept nodes (junctions).
+ * Degree counts neighbours in either direction: node with more than 2 of them (branch or merge of directed edges) is kept
+ * even if not selected by predicate, so corridors never share nodes. Every corridor is walked once from each of its ends,
+ * compression is linear in size of the explored graph.
+ * Edges are directed: corridor is recorded only in directions it can be walked, e.g. with slopes in the way.
+ * Corridors ending in dead ends are dropped.
+ */
+public class GraphCompressor<T extends GraphNode> {
+    private final Graph<T> graph;
+    private final Predicate<T> keepNode;
+    private final Scorer<T> stepScorer;
+    private final LongBinaryOperator weightMerger;
+
+    /** Compressor with unit step cost, keeping longest of parallel corridors */
+    public GraphCompressor(Graph<T> graph, Predicate<T> keepNode) {
+        this(graph, keepNode, null, Math::max);
+    }
+    /**
+     * @param stepScorer cost of single step between adjacent nodes, unit cost if null
+     * @param weightMerger combines weights of parallel corridors between the same pair of kept nodes, e.g. Math::max or Math::min
+     */
+    public GraphCompressor(Graph<T> graph, Predicate<T> keepNode, Scorer<T> stepScorer, LongBinaryOperator weightMerger) {
+        this.graph = graph;
+        this.keepNode = keepNode;
+        this.stepScorer = stepScorer;
+        this.weightMerger = weightMerger;
+    }
+
+    public GraphCompressed<T> compress(T startNode) {
+        return compress(List.of(startNode));
+    }
+    /** Compresses part of graph reachable from given start nodes, start nodes are always kept */
+    public GraphCompressed<T> compress(Iterable<T> startNodes) {
+        GraphCompressed<T> compressed = new GraphCompressed<>();
+        Map<Long, Set<Long>> neighbourIds = getNeighbourIds(startNodes);
+        Set<Long> keptIds = new HashSet<>();
+        Deque<T> toExpand = new ArrayDeque<>();
+        for (T startNode : startNodes) {
+            if (keptIds.add(startNode.getId())) {
+                compressed.addNode(startNode);
+                toExpand.add(startNode);
+            }
+        }
+        while (!toExpand.isEmpty()) {
+            T junction = toExpand.removeFirst();
+            for (T first : graph.getEdges(junction)) {
+                T previous = junction, current = first;
+                long weight = stepCost(junction, first);
+                boolean deadEnd = false;
+                while (!keptIds.contains(current.getId())) {
+                    int degree = neighbourIds.get(current.getId()).size();
+                    if (degree > 2 || keepNode.test(current)) {
+                        break; // junction
+                    }
+                    T next = null;
+                    for (T candidate : graph.getEdges(current)) {
+                        if (!candidate.equals(previous)) { // no going back
+                            next = candidate;
+                        }
+                    }
+                    if (next == null) {
+                        deadEnd = true; // dead end, or corridor is one-way against this walk
+                        break;
+                    }
+                    weight += stepCost(current, next);
+                    previous = current;
+                    current = next;
+                }
+                if (deadEnd || current.equals(junction)) {
+                    continue;
+                }
+                if (keptIds.add(current.getId())) {
+                    compressed.addNode(current);
+                    toExpand.add(current);
+                }
+                long corridorWeight = weight;
+                if (compressed.hasEdge(junction, current)) {
+                    corridorWeight = weightMerger.applyAsLong(compressed.getWeight(junction, current), corridorWeight);
+                }
+                compressed.addEdge(junction, current, corridorWeight);
+            }
+        }
+        return compressed;
+    }
+
+    /** Ids of neighbours in either direction (out-edges and in-edges) of each node reachable from start nodes */
+    private Map<Long, Set<Long>> getNeighbourIds(Iterable<T> startNodes) {
+        Map<Long, Set<Long>> neighbourIds = new HashMap<>();
+        Deque<T> toVisit = new ArrayDeque<>();
+        for (T startNode : startNodes) {
+            if (neighbourIds.putIfAbsent(startNode.getId(), new HashSet<>()) == null) {
+                toVisit.add(startNode);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            T node = toVisit.removeFirst();
+            Set<Long> nodeNeighbourIds = neighbourIds.get(node.getId());
+            for (T next : graph.getEdges(node)) {
+                nodeNeighbourIds.add(next.getId());
+                Set<Long> nextNeighbourIds = neighbourIds.get(next.getId());
+                if (nextNeighbourIds == null) {
+                    nextNeighbourIds = new HashSet<>();
+                    neighbourIds.put(next.getId(), nextNeighbourIds);
+                    toVisit.add(next);
+                }
+                nextNeighbourIds.add(node.getId());
+            }
+        }
+        return neighbourIds;
+    }
+
+    private long stepCost(T from, T to) {
+        return stepScorer != null ? stepScorer.computeCost(from, to) : 1;
+    }
+
+    public static class GraphCompressorTest {
+        private record Node(long id) implements GraphNode {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public boolean equalsTarget(GraphNode target) {
+                return id == target.getId();
+            }
+        }
+
+        @Test
+        void directedMergeNode() {
+            // two corridors 0->1->2 and 0->3->4->2 merge in node 2 (in-degree 2, out-degree 1), shared tail 2->5->6
+            GraphStatic<Node> graph = new GraphStatic<>();
+            long[][] edges = {{0, 1}, {1, 2}, {0, 3}, {3, 4}, {4, 2}, {2, 5}, {5, 6}};
+            for (long[] edge : edges) {
+                graph.addEdge(new Node(edge[0]), new Node(edge[1]));
+            }
+            GraphCompressed<Node> compressed = new GraphCompressor<>(graph, node -> node.id() == 6).compress(new Node(0));
+            assertEquals(Set.of(new Node(0), new Node(2), new Node(6)), compressed.getNodes());
+            assertEquals(Set.of(new Node(2)), compressed.getEdges(new Node(0)));
+            assertEquals(3, compressed.getWeight(new Node(0), new Node(2))); // longer of parallel corridors
+            assertEquals(Set.of(new Node(6)), compressed.getEdges(new Node(2)));
+            assertEquals(2, compressed.getWeight(new Node(2), new Node(6)));
+            assertEquals(Set.of(), compressed.getEdges(new Node(6)));
+        }
+
+        @Test
+        void directedOneWayCorridor() {
+            // 0->1->2 with corridor 1 one-way, no edge back from 2 through 1
+            GraphStatic<Node> graph = new GraphStatic<>();
+            graph.addEdge(new Node(0), new Node(1));
+            graph.addEdge(new Node(1), new Node(2));
+            graph.addEdge(new Node(2), new Node(3));
+            graph.addEdge(new Node(3), new Node(2));
+            GraphCompressed<Node> compressed = new GraphCompressor<>(graph, node -> node.id() == 2).compress(new Node(0));
+            assertEquals(2, compressed.getWeight(new Node(0), new Node(2)));
+            assertEquals(Set.of(), compressed.getEdges(new Node(2))); // 3 is dead end, way back through 1 is one-way
+        }
+    }
+}
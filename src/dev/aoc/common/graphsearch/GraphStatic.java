@@ -57,4 +57,16 @@ public class GraphStatic<T extends GraphNode> implements Graph<T> {
                 .map(this::getNode)
                 .collect(Collectors.toSet());
     }
+
+    @Override
+    public void forEachEdge(T node, Scorer<T> scorer, EdgeConsumer<T> consumer) {
+        Set<Long> connections = edges.get(node.getId());
+        if (connections == null) {
+            return;
+        }
+        for (long nextId : connections) {
+            T nextNode = getNode(nextId);
+            consumer.accept(nextNode, scorer != null ? scorer.computeCost(node, nextNode) : 0);
+        }
+    }
 }
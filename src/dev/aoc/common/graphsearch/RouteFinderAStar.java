@@ -24,9 +24,58 @@ public class RouteFinderAStar<T extends GraphNode> implements RouteFinder<T> {
     public Pair<List<T>, Long> findRoute(T startNode, T targetNode) {
         return findRoute(List.of(startNode), targetNode);
     }
+    /** Relaxes edges from current node, single instance per search to avoid allocation per expanded node */
+    private class EdgeRelaxer implements Graph.EdgeConsumer<T> {
+        private final FibonacciHeap<RouteNodeEstimatedPlusHeapRef<T>, RouteNodeEstimatedPlusHeapRef<T>> openSet;
+        private final Map<T, RouteNodeEstimatedPlusHeapRef<T>> all;
+        private final T targetNode;
+        private final Scorer<T> targetScorer;
+        private final SearchStatistics statistics;
+        private RouteNodeEstimatedPlusHeapRef<T> current;
+
+        public EdgeRelaxer(FibonacciHeap<RouteNodeEstimatedPlusHeapRef<T>, RouteNodeEstimatedPlusHeapRef<T>> openSet, Map<T, RouteNodeEstimatedPlusHeapRef<T>> all, T targetNode, Scorer<T> targetScorer, SearchStatistics statistics) {
+            this.openSet = openSet;
+            this.all = all;
+            this.targetNode = targetNode;
+            this.targetScorer = targetScorer;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void accept(T nextNode, long cost) {
+            if (statistics != null) {
+                statistics.scanned();
+            }
+            var next = all.computeIfAbsent(nextNode, key -> new RouteNodeEstimatedPlusHeapRef<>(nextNode));
+            long newScore = current.getRouteScore() + cost;
+            if (newScore < next.getRouteScore()) {
+                next.setPrevious(current);
+                next.setRouteScore(newScore);
+                next.setEstimatedScore(newScore + (targetScorer != null ? targetScorer.computeCost(nextNode, targetNode) : 0));
+                var heapEntry = next.getHeapEntry();
+                if (heapEntry != null) {
+                    openSet.decreaseKey(heapEntry, next); // decrease key is faster than remove/insert if already part of the open set
+                    if (statistics != null) {
+                        statistics.decreasedKey();
+                    }
+                } else {
+                    next.setHeapEntry(openSet.insert(next, next));
+                    if (statistics != null) {
+                        statistics.inserted(openSet.getSize());
+                    }
+                }
+            }
+        }
+    }
+
     public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, T targetNode) {
+        SearchStatistics statistics = SearchStatistics.start("A*");
+        Graph<T> graph = statistics != null ? statistics.timed(this.graph) : this.graph;
+        Scorer<T> nextNodeScorer = statistics != null ? statistics.timed(this.nextNodeScorer) : this.nextNodeScorer;
+        Scorer<T> targetScorer = statistics != null ? statistics.timed(this.targetScorer) : this.targetScorer;
         var openSet = new FibonacciHeap<RouteNodeEstimatedPlusHeapRef<T>, RouteNodeEstimatedPlusHeapRef<T>>(Comparator.naturalOrder());
         Map<T, RouteNodeEstimatedPlusHeapRef<T>> all = new HashMap<>();
+        EdgeRelaxer edgeRelaxer = new EdgeRelaxer(openSet, all, targetNode, targetScorer, statistics);
 
         for (T startNode : startNodes) {
             var start = new RouteNodeEstimatedPlusHeapRef<>(startNode, null, 0, targetScorer != null ? targetScorer.computeCost(startNode, targetNode) : 0);
@@ -37,8 +86,9 @@ public class RouteFinderAStar<T extends GraphNode> implements RouteFinder<T> {
 
         List<T> foundRoute = null;
         long foundScore = Long.MAX_VALUE;
-        // int maxOpenSetCount = openSet.getSize();
-        // int countClosedNodes = 0;
+        if (statistics != null) {
+            statistics.openSetSize(openSet.getSize());
+        }
 
         while (!openSet.isEmpty()) {
             // System.out.printf("routing: open %d%n", openSet.size());
@@ -46,7 +96,9 @@ public class RouteFinderAStar<T extends GraphNode> implements RouteFinder<T> {
             current.setHeapEntry(null); // we don't need heap reference no more as this route node is off the open set
             T currentNode = current.getCurrent();
             long currentRouteScore = current.getRouteScore();
-            // countClosedNodes++;
+            if (statistics != null) {
+                statistics.expanded();
+            }
             if (currentNode.equalsTarget(targetNode)) {
                 // System.out.printf("score %d%n", current.getRouteScore());
                 List<T> route = new ArrayList<>();
@@ -71,25 +123,8 @@ public class RouteFinderAStar<T extends GraphNode> implements RouteFinder<T> {
                 // }
             }
 
-            for (T nextNode : graph.getEdges(currentNode)) {
-                var next = all.computeIfAbsent(nextNode, key -> new RouteNodeEstimatedPlusHeapRef<>(nextNode));
-                long newScore = current.getRouteScore() + nextNodeScorer.computeCost(currentNode, nextNode);
-                if (newScore < next.getRouteScore()) {
-                    next.setPrevious(current);
-                    next.setRouteScore(newScore);
-                    next.setEstimatedScore(newScore + (targetScorer != null ? targetScorer.computeCost(nextNode, targetNode) : 0));
-                    var heapEntry = next.getHeapEntry();
-                    if (heapEntry != null) {
-                        openSet.decreaseKey(heapEntry, next); // decrease key is faster than remove/insert if already part of the open set
-                    } else {
-                        openSet.insert(next, next);
-                    }
-                }
-            }
-
-            // if (maxOpenSetCount < openSet.getSize()) {
-            //     maxOpenSetCount = openSet.getSize();
-            // }
+            edgeRelaxer.current = current;
+            graph.forEachEdge(currentNode, nextNodeScorer, edgeRelaxer);
         }
 
         // throw new IllegalStateException("no route found");
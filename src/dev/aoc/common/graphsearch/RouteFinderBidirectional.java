@@ -0,0 +1,270 @@
+package dev.aoc.common.graphsearch;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+import org.teneighty.heap.FibonacciHeap;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bidirectional A* (bidirectional Dijkstra without estimate scorers), searches forward from start nodes and backward from target nodes.
+ * Backward search walks reverse graph, where edges of node lead to its predecessors; cost of reversed edge is still computed as forward.
+ * Both searches use average potential p(v) = (estimate to target - estimate from start) / 2, consistent if both estimates are consistent,
+ * keys are kept doubled to stay in integers. Search stops when sum of minimal keys of both open sets reaches doubled best meeting score.
+ * Every meeting route improving the best score so far is passed to foundRoute: REMEMBER makes it the best route and the search goes on
+ * until no better route can exist, ABORT_SEARCH makes it the best route and stops at once, IGNORE leaves it out and does not tighten the bound.
+ * Routes are combinations of both search trees joined at meeting node, so IGNORE can reject only routes the trees represent.
+ */
+public class RouteFinderBidirectional<T extends GraphNode> implements RouteFinder<T> {
+    private final Graph<T> graph;
+    private final Graph<T> reverseGraph;
+    private final Scorer<T> nextNodeScorer;
+    private final Scorer<T> targetScorer;
+    private final Scorer<T> startScorer;
+
+    public RouteFinderBidirectional(Graph<T> graph, Graph<T> reverseGraph, Scorer<T> nextNodeScorer) {
+        this(graph, reverseGraph, nextNodeScorer, null, null);
+    }
+    /**
+     * @param targetScorer estimates cost from node to target (first argument is node), null for no estimate
+     * @param startScorer estimates cost from start to node (second argument is node), null for no estimate
+     */
+    public RouteFinderBidirectional(Graph<T> graph, Graph<T> reverseGraph, Scorer<T> nextNodeScorer, Scorer<T> targetScorer, Scorer<T> startScorer) {
+        this.graph = graph;
+        this.reverseGraph = reverseGraph;
+        this.nextNodeScorer = nextNodeScorer;
+        this.targetScorer = targetScorer;
+        this.startScorer = startScorer;
+    }
+
+    @Override
+    public FoundRouteDecision foundRoute(List<T> route, long score) {
+        return FoundRouteDecision.REMEMBER; // remember every improvement, search until the best route is proven
+    }
+
+    public Pair<List<T>, Long> findRoute(T startNode, T targetNode) {
+        return findRoute(List.of(startNode), List.of(targetNode));
+    }
+    public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, T targetNode) {
+        return findRoute(startNodes, List.of(targetNode));
+    }
+
+    /** State of single search, both directions with their open sets and the best meeting found so far */
+    private class Search {
+        private final List<T> startNodes, targetNodes;
+        private final Frontier forward, backward;
+        private final SearchStatistics statistics = SearchStatistics.start("A* bidirectional");
+        private final Scorer<T> targetScorer, startScorer;
+        private long bestScore = Long.MAX_VALUE;
+        private List<T> bestRoute;
+        private final Set<List<T>> ignoredRoutes = new HashSet<>();
+        private boolean aborted;
+
+        public Search(List<T> startNodes, List<T> targetNodes) {
+            this.startNodes = startNodes;
+            this.targetNodes = targetNodes;
+            Scorer<T> nextNodeScorer = statistics != null ? statistics.timed(RouteFinderBidirectional.this.nextNodeScorer) : RouteFinderBidirectional.this.nextNodeScorer;
+            targetScorer = statistics != null ? statistics.timed(RouteFinderBidirectional.this.targetScorer) : RouteFinderBidirectional.this.targetScorer;
+            startScorer = statistics != null ? statistics.timed(RouteFinderBidirectional.this.startScorer) : RouteFinderBidirectional.this.startScorer;
+            forward = new Frontier(statistics != null ? statistics.timed(graph) : graph, nextNodeScorer, 1);
+            backward = new Frontier(statistics != null ? statistics.timed(reverseGraph) : reverseGraph, (from, to) -> nextNodeScorer.computeCost(to, from), -1);
+            forward.opposite = backward;
+            backward.opposite = forward;
+        }
+
+        public Pair<List<T>, Long> run() {
+            for (T startNode : startNodes) {
+                forward.add(startNode, null, 0);
+            }
+            for (T targetNode : targetNodes) {
+                backward.add(targetNode, null, 0);
+            }
+            while (!aborted && !forward.openSet.isEmpty() && !backward.openSet.isEmpty()) {
+                if (bestScore != Long.MAX_VALUE && forward.getMinimumKey() + backward.getMinimumKey() >= 2 * bestScore) {
+                    break; // no shorter route can be found
+                }
+                // expand side with smaller open set, to balance the searches
+                (forward.openSet.getSize() <= backward.openSet.getSize() ? forward : backward).expand();
+            }
+            return bestRoute != null ? new Pair<>(bestRoute, bestScore) : null;
+        }
+
+        private void meet(RouteNodeEstimated<T> forwardNode, RouteNodeEstimated<T> backwardNode) {
+            long score = forwardNode.getRouteScore() + backwardNode.getRouteScore();
+            if (aborted || score >= bestScore) {
+                return;
+            }
+            // route is built now, route nodes of both trees may get other previous nodes later on
+            List<T> route = new ArrayList<>();
+            for (RouteNodeEstimated<T> routeNode = forwardNode; routeNode != null; routeNode = routeNode.getPrevious()) {
+                route.add(routeNode.getCurrent());
+            }
+            Collections.reverse(route);
+            for (RouteNodeEstimated<T> routeNode = backwardNode.getPrevious(); routeNode != null; routeNode = routeNode.getPrevious()) {
+                route.add(routeNode.getCurrent());
+            }
+            if (ignoredRoutes.contains(route)) {
+                return; // the same route met again at another of its nodes
+            }
+            FoundRouteDecision decision = foundRoute(route, score);
+            if (decision == FoundRouteDecision.IGNORE) {
+                ignoredRoutes.add(route);
+                return;
+            }
+            bestScore = score;
+            bestRoute = route;
+            aborted = decision == FoundRouteDecision.ABORT_SEARCH;
+        }
+
+        /** One direction of search with its open set */
+        private class Frontier implements Graph.EdgeConsumer<T> {
+            private final Graph<T> graph;
+            private final Scorer<T> scorer;
+            private final int potentialSign;
+            private final FibonacciHeap<RouteNodeEstimatedPlusHeapRef<T>, RouteNodeEstimatedPlusHeapRef<T>> openSet = new FibonacciHeap<>(Comparator.naturalOrder());
+            private final Map<T, RouteNodeEstimatedPlusHeapRef<T>> all = new HashMap<>();
+            private Frontier opposite;
+            private RouteNodeEstimatedPlusHeapRef<T> current;
+
+            public Frontier(Graph<T> graph, Scorer<T> scorer, int potentialSign) {
+                this.graph = graph;
+                this.scorer = scorer;
+                this.potentialSign = potentialSign;
+            }
+
+            /** Doubled average potential of node, from point of view of this search direction */
+            private long potential(T node) {
+                long toTarget = 0, fromStart = 0;
+                if (targetScorer != null) {
+                    toTarget = Long.MAX_VALUE;
+                    for (T targetNode : targetNodes) {
+                        toTarget = Math.min(toTarget, targetScorer.computeCost(node, targetNode));
+                    }
+                }
+                if (startScorer != null) {
+                    fromStart = Long.MAX_VALUE;
+                    for (T startNode : startNodes) {
+                        fromStart = Math.min(fromStart, startScorer.computeCost(startNode, node));
+                    }
+                }
+                return potentialSign * (toTarget - fromStart);
+            }
+
+            public void add(T node, RouteNodeEstimatedPlusHeapRef<T> previous, long score) {
+                var next = all.computeIfAbsent(node, key -> new RouteNodeEstimatedPlusHeapRef<>(node));
+                if (score >= next.getRouteScore()) {
+                    return;
+                }
+                next.setPrevious(previous);
+                next.setRouteScore(score);
+                next.setEstimatedScore(2 * score + potential(node));
+                var heapEntry = next.getHeapEntry();
+                if (heapEntry != null) {
+                    openSet.decreaseKey(heapEntry, next); // decrease key is faster than remove/insert if already part of the open set
+                    if (statistics != null) {
+                        statistics.decreasedKey();
+                    }
+                } else {
+                    next.setHeapEntry(openSet.insert(next, next));
+                    if (statistics != null) {
+                        statistics.inserted(openSet.getSize() + opposite.openSet.getSize());
+                    }
+                }
+                var oppositeNode = opposite.all.get(node);
+                if (oppositeNode != null && !oppositeNode.isUninitialized()) {
+                    meet(this == forward ? next : oppositeNode, this == forward ? oppositeNode : next);
+                }
+            }
+
+            public long getMinimumKey() {
+                return openSet.getMinimum().getKey().getEstimatedScore();
+            }
+
+            public void expand() {
+                current = openSet.extractMinimum().getValue();
+                current.setHeapEntry(null); // we don't need heap reference no more as this route node is off the open set
+                if (statistics != null) {
+                    statistics.expanded();
+                }
+                graph.forEachEdge(current.getCurrent(), scorer, this);
+            }
+
+            @Override
+            public void accept(T nextNode, long cost) {
+                if (statistics != null) {
+                    statistics.scanned();
+                }
+                add(nextNode, current, current.getRouteScore() + cost);
+            }
+        }
+    }
+
+    /** Searches route from any of start nodes to any of target nodes (by equality, backward search starts from all of them) */
+    public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, Iterable<T> targetNodes) {
+        List<T> starts = new ArrayList<>();
+        startNodes.forEach(starts::add);
+        List<T> targets = new ArrayList<>();
+        targetNodes.forEach(targets::add);
+        return new Search(starts, targets).run();
+    }
+
+    public static class RouteFinderBidirectionalTest {
+        /** Node of test graph, nodes of the same group are equal as targets */
+        private record Node(long id, long group) implements GraphNode {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public boolean equalsTarget(GraphNode target) {
+                return target instanceof Node node && group == node.group;
+            }
+        }
+
+        private final Node start = new Node(0, 0), target1 = new Node(1, 9), target2 = new Node(2, 9), via3 = new Node(3, 3), via4 = new Node(4, 4);
+        private final Map<List<Long>, Long> costs = Map.of(
+                List.of(0L, 3L), 1L, List.of(3L, 1L), 1L, List.of(0L, 4L), 3L, List.of(3L, 4L), 1L, List.of(4L, 2L), 2L
+        );
+        private final GraphStatic<Node> graph = new GraphStatic<>(), reverseGraph = new GraphStatic<>();
+        private final Scorer<Node> scorer = (from, to) -> costs.get(List.of(from.id(), to.id()));
+
+        public RouteFinderBidirectionalTest() {
+            Map<Long, Node> nodes = Map.of(0L, start, 1L, target1, 2L, target2, 3L, via3, 4L, via4);
+            for (List<Long> edge : costs.keySet()) {
+                graph.addEdge(nodes.get(edge.get(0)), nodes.get(edge.get(1)));
+                reverseGraph.addEdge(nodes.get(edge.get(1)), nodes.get(edge.get(0)));
+            }
+        }
+
+        @Test
+        void bestRoute() {
+            Pair<List<Node>, Long> route = new RouteFinderBidirectional<>(graph, reverseGraph, scorer).findRoute(List.of(start), List.of(target1, target2));
+            assertEquals(new Pair<>(List.of(start, via3, target1), 2L), route);
+        }
+
+        @Test
+        void ignoredRoutesAsAStar() {
+            // routes ending in target1 are rejected, search must go on past the cheaper rejected route to target2
+            Pair<List<Node>, Long> expected = new RouteFinderAStar<>(graph, scorer, null) {
+                @Override
+                public FoundRouteDecision foundRoute(List<Node> route, long score) {
+                    return route.getLast().equals(target1) ? FoundRouteDecision.IGNORE : FoundRouteDecision.ABORT_SEARCH;
+                }
+            }.findRoute(start, target1);
+            List<Long> reportedScores = new ArrayList<>();
+            Pair<List<Node>, Long> route = new RouteFinderBidirectional<>(graph, reverseGraph, scorer) {
+                @Override
+                public FoundRouteDecision foundRoute(List<Node> route, long score) {
+                    reportedScores.add(score);
+                    return route.getLast().equals(target1) ? FoundRouteDecision.IGNORE : FoundRouteDecision.REMEMBER;
+                }
+            }.findRoute(List.of(start), List.of(target1, target2));
+            assertEquals(new Pair<>(List.of(start, via3, via4, target2), 4L), expected);
+            assertEquals(expected, route);
+            assertEquals(List.of(2L, 4L), reportedScores);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package dev.aoc.common.graphsearch;
 import org.javatuples.Pair;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RouteFinderDFS<T extends GraphNode> implements RouteFinder<T> {
     private final Graph<T> graph;
@@ -29,19 +28,22 @@ public class RouteFinderDFS<T extends GraphNode> implements RouteFinder<T> {
 
     private record State<T extends GraphNode>(RouteNodeEstimated<T> node, List<RouteNodeEstimated<T>> nexts) {}
 
-    private State<T> createState(RouteNodeEstimated<T> current, Map<T, RouteNodeEstimated<T>> all, T targetNode) {
-        List<RouteNodeEstimated<T>> nexts = graph.getEdges(current.getCurrent()).stream()
-                .map(nextNode -> {
-                    RouteNodeEstimated<T> next = all.computeIfAbsent(nextNode, key -> new RouteNodeEstimated<>(nextNode));
-                    if ((current.getPrevious() != null && next.equals(current.getPrevious())) || next.getPrevious() != null) {
-                        return null; // skip going back and ignore visited connections
-                    }
-                    return next;
-                })
-                .filter(Objects::nonNull)
-                .sorted(nodeComparator != null ? nodeComparator : RouteNodeEstimated::compareTo)
-                .collect(Collectors.toList())
-                ;
+    private State<T> createState(RouteNodeEstimated<T> current, Map<T, RouteNodeEstimated<T>> all, Graph<T> graph, SearchStatistics statistics) {
+        if (statistics != null) {
+            statistics.expanded();
+        }
+        List<RouteNodeEstimated<T>> nexts = new ArrayList<>(4);
+        graph.forEachEdge(current.getCurrent(), null, (nextNode, cost) -> { // cost is computed when stepping into next node
+            if (statistics != null) {
+                statistics.scanned();
+            }
+            RouteNodeEstimated<T> next = all.computeIfAbsent(nextNode, key -> new RouteNodeEstimated<>(nextNode));
+            if ((current.getPrevious() != null && next.equals(current.getPrevious())) || next.getPrevious() != null) {
+                return; // skip going back and ignore visited connections
+            }
+            nexts.add(next);
+        });
+        nexts.sort(nodeComparator != null ? nodeComparator : RouteNodeEstimated::compareTo);
         return new State<>(current, nexts);
     }
 
@@ -54,13 +56,20 @@ public class RouteFinderDFS<T extends GraphNode> implements RouteFinder<T> {
         return findRoute(List.of(startNode), targetNode);
     }
     public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, T targetNode) {
+        SearchStatistics statistics = SearchStatistics.start("DFS");
+        Graph<T> graph = statistics != null ? statistics.timed(this.graph) : this.graph;
+        Scorer<T> nextNodeScorer = statistics != null ? statistics.timed(this.nextNodeScorer) : this.nextNodeScorer;
+        Scorer<T> targetScorer = statistics != null ? statistics.timed(this.targetScorer) : this.targetScorer;
         Map<T, RouteNodeEstimated<T>> all = new HashMap<>();
         List<State<T>> state = new LinkedList<>();
 
         for (T startNode : startNodes) {
             RouteNodeEstimated<T> start = new RouteNodeEstimated<>(startNode, null, 0, targetScorer != null ? targetScorer.computeCost(startNode, targetNode) : 0);
             all.put(startNode, start);
-            state.add(createState(start, all, targetNode));
+            state.add(createState(start, all, graph, statistics));
+            if (statistics != null) {
+                statistics.inserted(state.size());
+            }
         }
 
         List<T> foundRoute = null;
@@ -99,8 +108,11 @@ public class RouteFinderDFS<T extends GraphNode> implements RouteFinder<T> {
             nextNode.setPrevious(current);
             nextNode.setRouteScore(newScore);
             nextNode.setEstimatedScore(newScore + (targetScorer != null ? targetScorer.computeCost(currentNode, targetNode) : 0));
-            State<T> nextState = createState(nextNode, all, targetNode);
+            State<T> nextState = createState(nextNode, all, graph, statistics);
             state.add(nextState);
+            if (statistics != null) {
+                statistics.inserted(state.size());
+            }
         }
         return foundRoute != null ? new Pair<>(foundRoute, foundScore) : null;
     }
@@ -0,0 +1,211 @@
+package dev.aoc.common.graphsearch;
+
+import org.javatuples.Pair;
+
+import java.util.*;
+
+/**
+ * Exhaustive DFS for the longest (or shortest) simple route, on arrays: nodes get dense indices when discovered,
+ * adjacency of node (indices and costs) is cached on first expansion, the stack is made of preallocated int/long arrays
+ * and visited nodes are flags in a bitset. Route list is built only for routes improving the best score so far,
+ * such routes are passed to foundRoute: REMEMBER or ABORT_SEARCH make it the best route, IGNORE leaves it out.
+ * Optional bound scorer enables branch-and-bound: for the longest route it must not underestimate the remaining score
+ * from node to target, for the shortest route it must not overestimate it.
+ */
+public class RouteFinderDFSArray<T extends GraphNode> implements RouteFinder<T> {
+    private final Graph<T> graph;
+    private final Scorer<T> nextNodeScorer;
+    private final Scorer<T> boundScorer;
+    private final boolean longest;
+
+    public RouteFinderDFSArray(Graph<T> graph, Scorer<T> nextNodeScorer, boolean longest) {
+        this(graph, nextNodeScorer, null, longest);
+    }
+    public RouteFinderDFSArray(Graph<T> graph, Scorer<T> nextNodeScorer, Scorer<T> boundScorer, boolean longest) {
+        this.graph = graph;
+        this.nextNodeScorer = nextNodeScorer;
+        this.boundScorer = boundScorer;
+        this.longest = longest;
+    }
+
+    @Override
+    public FoundRouteDecision foundRoute(List<T> route, long score) {
+        return FoundRouteDecision.REMEMBER; // remember every improvement, search exhaustively to the end
+    }
+
+    public Pair<List<T>, Long> findRoute(T startNode, T targetNode) {
+        return findRoute(List.of(startNode), targetNode);
+    }
+
+    private static final int[] NO_TARGETS = new int[0];
+    private static final long[] NO_COSTS = new long[0];
+
+    /** Dense node indexing and cached adjacency of single search */
+    private class Nodes {
+        private final Graph<T> graph;
+        private final Scorer<T> scorer;
+        private final Map<T, Integer> indices = new HashMap<>();
+        private final List<T> nodes = new ArrayList<>();
+        private int[][] targets = new int[64][];
+        private long[][] costs = new long[64][];
+        private int[] bufferTargets = new int[8];
+        private long[] bufferCosts = new long[8];
+        private int bufferSize;
+
+        public Nodes(Graph<T> graph, Scorer<T> scorer) {
+            this.graph = graph;
+            this.scorer = scorer;
+        }
+
+        public int indexOf(T node) {
+            Integer index = indices.get(node);
+            if (index == null) {
+                index = nodes.size();
+                indices.put(node, index);
+                nodes.add(node);
+                if (index == targets.length) {
+                    targets = Arrays.copyOf(targets, index * 2);
+                    costs = Arrays.copyOf(costs, index * 2);
+                }
+            }
+            return index;
+        }
+
+        public T get(int index) {
+            return nodes.get(index);
+        }
+
+        public int size() {
+            return nodes.size();
+        }
+
+        /** Expands node on first use, caches indices of its neighbours with costs of edges */
+        public void expand(int index) {
+            if (targets[index] != null) {
+                return;
+            }
+            bufferSize = 0;
+            graph.forEachEdge(nodes.get(index), scorer, (nextNode, cost) -> {
+                if (bufferSize == bufferTargets.length) {
+                    bufferTargets = Arrays.copyOf(bufferTargets, bufferSize * 2);
+                    bufferCosts = Arrays.copyOf(bufferCosts, bufferSize * 2);
+                }
+                bufferTargets[bufferSize] = indexOf(nextNode);
+                bufferCosts[bufferSize] = cost;
+                bufferSize++;
+            });
+            targets[index] = bufferSize == 0 ? NO_TARGETS : Arrays.copyOf(bufferTargets, bufferSize);
+            costs[index] = bufferSize == 0 ? NO_COSTS : Arrays.copyOf(bufferCosts, bufferSize);
+        }
+    }
+
+    public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, T targetNode) {
+        SearchStatistics statistics = SearchStatistics.start("DFS array");
+        Graph<T> graph = statistics != null ? statistics.timed(this.graph) : this.graph;
+        Scorer<T> nextNodeScorer = statistics != null ? statistics.timed(this.nextNodeScorer) : this.nextNodeScorer;
+        Scorer<T> boundScorer = statistics != null ? statistics.timed(this.boundScorer) : this.boundScorer;
+        Nodes nodes = new Nodes(graph, nextNodeScorer);
+        int targetIndex = nodes.indexOf(targetNode);
+        long bestScore = longest ? Long.MIN_VALUE : Long.MAX_VALUE;
+        List<T> bestRoute = null;
+        int[] stackNodes = new int[64];
+        int[] stackCursors = new int[64];
+        long[] stackScores = new long[64];
+        long[] visited = new long[64];
+
+        search:
+        for (T startNode : startNodes) {
+            int startIndex = nodes.indexOf(startNode);
+            if (startIndex == targetIndex) {
+                if (isImprovement(0, bestScore)) {
+                    FoundRouteDecision decision = foundRoute(new ArrayList<>(List.of(startNode)), 0);
+                    if (decision != FoundRouteDecision.IGNORE) {
+                        bestScore = 0;
+                        bestRoute = List.of(startNode);
+                        if (decision == FoundRouteDecision.ABORT_SEARCH) {
+                            break;
+                        }
+                    }
+                }
+                continue;
+            }
+            int depth = 0;
+            stackNodes[0] = startIndex;
+            stackCursors[0] = 0;
+            stackScores[0] = 0;
+            visited = setVisited(visited, startIndex);
+            depth++;
+            while (depth > 0) {
+                int top = depth - 1;
+                int current = stackNodes[top];
+                nodes.expand(current);
+                int[] nextIndices = nodes.targets[current];
+                int cursor = stackCursors[top];
+                if (cursor == nextIndices.length) {
+                    visited[current >>> 6] &= ~(1L << current); // node exhausted, mark as non-visited and backtrack
+                    depth--;
+                    continue;
+                }
+                stackCursors[top]++;
+                int next = nextIndices[cursor];
+                if (statistics != null) {
+                    statistics.scanned();
+                }
+                if (next >>> 6 < visited.length && (visited[next >>> 6] & (1L << next)) != 0) {
+                    continue;
+                }
+                long nextScore = stackScores[top] + nodes.costs[current][cursor];
+                if (next == targetIndex) {
+                    if (!isImprovement(nextScore, bestScore)) {
+                        continue;
+                    }
+                    // found the better route
+                    List<T> route = new ArrayList<>(depth + 1);
+                    for (int i = 0; i < depth; i++) {
+                        route.add(nodes.get(stackNodes[i]));
+                    }
+                    route.add(targetNode);
+                    FoundRouteDecision decision = foundRoute(route, nextScore);
+                    if (decision != FoundRouteDecision.IGNORE) {
+                        bestScore = nextScore;
+                        bestRoute = route;
+                        if (decision == FoundRouteDecision.ABORT_SEARCH) {
+                            break search;
+                        }
+                    }
+                    continue;
+                }
+                if (boundScorer != null && bestRoute != null && !isImprovement(nextScore + boundScorer.computeCost(nodes.get(next), targetNode), bestScore)) {
+                    continue; // branch can't beat the best route
+                }
+                if (depth == stackNodes.length) {
+                    stackNodes = Arrays.copyOf(stackNodes, depth * 2);
+                    stackCursors = Arrays.copyOf(stackCursors, depth * 2);
+                    stackScores = Arrays.copyOf(stackScores, depth * 2);
+                }
+                stackNodes[depth] = next;
+                stackCursors[depth] = 0;
+                stackScores[depth] = nextScore;
+                visited = setVisited(visited, next);
+                depth++;
+                if (statistics != null) {
+                    statistics.expanded();
+                    statistics.inserted(depth);
+                }
+            }
+        }
+        return bestRoute != null ? new Pair<>(bestRoute, bestScore) : null;
+    }
+
+    private boolean isImprovement(long score, long bestScore) {
+        return longest ? score > bestScore : score < bestScore;
+    }
+
+    private static long[] setVisited(long[] visited, int index) {
+        if (index >>> 6 >= visited.length) {
+            visited = Arrays.copyOf(visited, Math.max(visited.length * 2, (index >>> 6) + 1));
+        }
+        visited[index >>> 6] |= 1L << index;
+        return visited;
+    }
+}
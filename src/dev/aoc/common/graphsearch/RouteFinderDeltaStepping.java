@@ -0,0 +1,162 @@
+package dev.aoc.common.graphsearch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single source shortest paths by delta-stepping (Meyer, Sanders), computes minimal cost of getting from start nodes to every node.
+ * Nodes are kept in buckets of width delta by tentative score, nodes of the lowest bucket are expanded in parallel by worker threads.
+ * Light edges (cost up to delta) are relaxed repeatedly until the bucket stays empty, heavy edges once per settled node afterward.
+ * Graph and scorer must be safe for use by many threads. Edge costs must be non-negative.
+ * Search statistics count per worker thread, peak open set is the largest processed bucket.
+ */
+public class RouteFinderDeltaStepping<T extends GraphNode> {
+    private final Graph<T> graph;
+    private final Scorer<T> nodeScorer;
+    private final long delta;
+
+    public RouteFinderDeltaStepping(Graph<T> graph, Scorer<T> nodeScorer, long delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be positive, got %d".formatted(delta));
+        }
+        this.graph = graph;
+        this.nodeScorer = nodeScorer;
+        this.delta = delta;
+    }
+
+    /** Tentative scores, updated concurrently */
+    private interface Scores<T> {
+        long get(T node);
+        /** Lowers score of node to given value, returns false if node already has lower or equal score */
+        boolean lower(T node, long score);
+    }
+
+    /** Returns minimal cost for getting from start node to every reachable node, as in RouteFinderDijkstra */
+    public Map<T, Long> search(T startNode) {
+        return search(List.of(startNode));
+    }
+    public Map<T, Long> search(Iterable<T> startNodes) {
+        ConcurrentHashMap<T, Long> scores = new ConcurrentHashMap<>();
+        search(startNodes, new Scores<>() {
+            @Override
+            public long get(T node) {
+                Long score = scores.get(node);
+                return score != null ? score : Long.MAX_VALUE;
+            }
+            @Override
+            public boolean lower(T node, long score) {
+                Long previous = scores.putIfAbsent(node, score);
+                while (previous != null) {
+                    if (previous <= score) {
+                        return false;
+                    }
+                    if (scores.replace(node, previous, score)) {
+                        return true;
+                    }
+                    previous = scores.putIfAbsent(node, score);
+                }
+                return true;
+            }
+        });
+        return scores;
+    }
+
+    /** Variant for graphs with dense node ids in range [0, idCount), scores are indexed by node id, Long.MAX_VALUE for unreachable nodes */
+    public long[] searchDense(T startNode, int idCount) {
+        return searchDense(List.of(startNode), idCount);
+    }
+    public long[] searchDense(Iterable<T> startNodes, int idCount) {
+        AtomicLongArray scores = new AtomicLongArray(idCount);
+        for (int id = 0; id < idCount; id++) {
+            scores.set(id, Long.MAX_VALUE);
+        }
+        search(startNodes, new Scores<>() {
+            @Override
+            public long get(T node) {
+                return scores.get((int) node.getId());
+            }
+            @Override
+            public boolean lower(T node, long score) {
+                int id = (int) node.getId();
+                long previous = scores.get(id);
+                while (score < previous) {
+                    long witness = scores.compareAndExchange(id, previous, score);
+                    if (witness == previous) {
+                        return true;
+                    }
+                    previous = witness;
+                }
+                return false;
+            }
+        });
+        long[] result = new long[idCount];
+        for (int id = 0; id < idCount; id++) {
+            result[id] = scores.get(id);
+        }
+        return result;
+    }
+
+    private void search(Iterable<T> startNodes, Scores<T> scores) {
+        SearchStatistics statistics = SearchStatistics.start("delta-stepping");
+        ConcurrentSkipListMap<Long, Set<T>> buckets = new ConcurrentSkipListMap<>();
+        SearchStatistics startWorker = statistics != null ? statistics.ofWorker() : null;
+        for (T startNode : startNodes) {
+            relax(startNode, 0, scores, buckets, startWorker);
+        }
+        while (!buckets.isEmpty()) {
+            final long bucketIndex = buckets.firstKey();
+            Set<T> settled = ConcurrentHashMap.newKeySet();
+            Set<T> frontier;
+            // light edges may put nodes back into current bucket, repeat until it stays empty
+            while ((frontier = buckets.remove(bucketIndex)) != null) {
+                if (statistics != null) {
+                    statistics.openSetSize(frontier.size());
+                }
+                frontier.parallelStream().forEach(node -> {
+                    long score = scores.get(node);
+                    if (score / delta != bucketIndex) {
+                        return; // stale entry, node was moved to lower bucket
+                    }
+                    settled.add(node);
+                    SearchStatistics worker = statistics != null ? statistics.ofWorker() : null; // once per task, not per edge
+                    if (worker != null) {
+                        worker.expanded();
+                    }
+                    graph.forEachEdge(node, nodeScorer, (nextNode, cost) -> {
+                        if (cost <= delta) {
+                            relax(nextNode, score + cost, scores, buckets, worker);
+                        }
+                    });
+                });
+            }
+            // heavy edges lead out of current bucket, relax them once from final scores
+            settled.parallelStream().forEach(node -> {
+                long score = scores.get(node);
+                SearchStatistics worker = statistics != null ? statistics.ofWorker() : null;
+                graph.forEachEdge(node, nodeScorer, (nextNode, cost) -> {
+                    if (cost > delta) {
+                        relax(nextNode, score + cost, scores, buckets, worker);
+                    }
+                });
+            });
+        }
+        if (statistics != null) {
+            statistics.mergeWorkers();
+        }
+    }
+
+    /** Worker is statistics of current thread (see SearchStatistics.ofWorker), null if statistics are disabled */
+    private void relax(T node, long score, Scores<T> scores, ConcurrentSkipListMap<Long, Set<T>> buckets, SearchStatistics worker) {
+        if (worker != null) {
+            worker.scanned();
+        }
+        if (scores.lower(node, score)) {
+            buckets.computeIfAbsent(score / delta, key -> ConcurrentHashMap.newKeySet()).add(node);
+            if (worker != null) {
+                worker.inserted(0); // peak open set is taken per bucket
+            }
+        }
+    }
+}
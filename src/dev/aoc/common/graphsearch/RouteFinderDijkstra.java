@@ -15,26 +15,43 @@ public class RouteFinderDijkstra<T extends GraphNode> {
     /** Searches graph computing minimal cost for getting from every node to given start node.
      * Uses Fibonnaci Heap instead of Priority Queue for efficiency. See https://gabormakrai.wordpress.com/2015/02/11/experimenting-with-dijkstras-algorithm/ */
     public Map<T, Long> search(T startNode) {
+        return search(List.of(startNode));
+    }
+    public Map<T, Long> search(Iterable<T> startNodes) {
+        SearchStatistics statistics = SearchStatistics.start("Dijkstra");
+        Graph<T> graph = statistics != null ? statistics.timed(this.graph) : this.graph;
+        Scorer<T> nodeScorer = statistics != null ? statistics.timed(this.nodeScorer) : this.nodeScorer;
         // Queue<RouteNode<T>> openSet = new PriorityQueue<>();
         var openSet = new FibonacciHeap<RouteNodePlusHeapRef<T>, RouteNodePlusHeapRef<T>>(Comparator.naturalOrder());
         Map<T, RouteNodePlusHeapRef<T>> all = new HashMap<>();
         Map<T, Long> scores = new HashMap<>();
 
-        var start = new RouteNodePlusHeapRef<T>(startNode, null, 0);
-        // openSet.add(startNode);
-        var startHeapEntry = openSet.insert(start, start);
-        start.setHeapEntry(startHeapEntry);
-        all.put(startNode, start);
+        for (T startNode : startNodes) {
+            var start = new RouteNodePlusHeapRef<T>(startNode, null, 0);
+            // openSet.add(startNode);
+            var startHeapEntry = openSet.insert(start, start);
+            start.setHeapEntry(startHeapEntry);
+            all.put(startNode, start);
+        }
+        if (statistics != null) {
+            statistics.openSetSize(openSet.getSize());
+        }
 
         while (!openSet.isEmpty()) {
             RouteNodePlusHeapRef<T> current = openSet.extractMinimum().getValue();
             current.setHeapEntry(null); // we don't need heap reference no more as this route node is off the open set
             T currentNode = current.getCurrent();
             scores.put(currentNode, current.getRouteScore());
+            if (statistics != null) {
+                statistics.expanded();
+            }
 
-            graph.getEdges(currentNode).forEach(nextNode -> {
+            graph.forEachEdge(currentNode, nodeScorer, (nextNode, cost) -> {
+                if (statistics != null) {
+                    statistics.scanned();
+                }
                 var next = all.computeIfAbsent(nextNode, key -> new RouteNodePlusHeapRef<>(nextNode));
-                long newScore = current.getRouteScore() + nodeScorer.computeCost(currentNode, currentNode);
+                long newScore = current.getRouteScore() + cost;
                 if (newScore < next.getRouteScore()) {
                     // boolean isNew = next.isUninitialized();
                     next.setPrevious(current);
@@ -48,8 +65,14 @@ public class RouteFinderDijkstra<T extends GraphNode> {
                     var heapEntry = next.getHeapEntry();
                     if (heapEntry != null) {
                         openSet.decreaseKey(heapEntry, next); // decrease key is faster than remove/insert if already part of the open set
+                        if (statistics != null) {
+                            statistics.decreasedKey();
+                        }
                     } else {
-                        openSet.insert(next, next);
+                        next.setHeapEntry(openSet.insert(next, next));
+                        if (statistics != null) {
+                            statistics.inserted(openSet.getSize());
+                        }
                     }
                 }
             });
@@ -0,0 +1,92 @@
+package dev.aoc.common.graphsearch;
+
+import org.javatuples.Pair;
+
+import java.util.*;
+
+/**
+ * Longest route in directed acyclic graph, by dynamic programming over nodes in topological order (Kahn's algorithm).
+ * Linear in size of graph reachable from start nodes. Throws IllegalStateException when reachable graph has a cycle.
+ */
+public class RouteFinderLongestDAG<T extends GraphNode> implements RouteFinder<T> {
+    private final Graph<T> graph;
+    private final Scorer<T> nextNodeScorer;
+
+    public RouteFinderLongestDAG(Graph<T> graph) {
+        this(graph, null);
+    }
+    public RouteFinderLongestDAG(Graph<T> graph, Scorer<T> nextNodeScorer) {
+        this.graph = graph;
+        this.nextNodeScorer = nextNodeScorer;
+    }
+
+    @Override
+    public FoundRouteDecision foundRoute(List<T> route, long score) {
+        return FoundRouteDecision.REMEMBER; // only the longest route is reported
+    }
+
+    public Pair<List<T>, Long> findRoute(T startNode, T targetNode) {
+        return findRoute(List.of(startNode), targetNode);
+    }
+    public Pair<List<T>, Long> findRoute(Iterable<T> startNodes, T targetNode) {
+        // collect reachable nodes and their in-degrees
+        Map<T, Integer> inDegrees = new HashMap<>();
+        Deque<T> toVisit = new ArrayDeque<>();
+        for (T startNode : startNodes) {
+            if (inDegrees.putIfAbsent(startNode, 0) == null) {
+                toVisit.add(startNode);
+            }
+        }
+        List<T> starts = new ArrayList<>(inDegrees.keySet());
+        while (!toVisit.isEmpty()) {
+            T node = toVisit.removeLast();
+            for (T next : graph.getEdges(node)) {
+                if (inDegrees.merge(next, 1, Integer::sum) == 1 && !starts.contains(next)) {
+                    toVisit.add(next);
+                }
+            }
+        }
+        // relax edges in topological order
+        Map<T, Long> scores = new HashMap<>();
+        Map<T, T> previous = new HashMap<>();
+        Deque<T> ready = new ArrayDeque<>();
+        for (T startNode : starts) {
+            scores.put(startNode, 0L);
+            if (inDegrees.get(startNode) == 0) {
+                ready.add(startNode);
+            }
+        }
+        int processed = 0;
+        while (!ready.isEmpty()) {
+            T node = ready.removeFirst();
+            processed++;
+            Long score = scores.get(node);
+            for (T next : graph.getEdges(node)) {
+                if (score != null) {
+                    long nextScore = score + (nextNodeScorer != null ? nextNodeScorer.computeCost(node, next) : 1);
+                    Long bestScore = scores.get(next);
+                    if (bestScore == null || bestScore < nextScore) {
+                        scores.put(next, nextScore);
+                        previous.put(next, node);
+                    }
+                }
+                if (inDegrees.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        if (processed != inDegrees.size()) {
+            throw new IllegalStateException("graph has a cycle, %d of %d nodes sorted".formatted(processed, inDegrees.size()));
+        }
+        Long targetScore = scores.get(targetNode);
+        if (targetScore == null) {
+            return null;
+        }
+        List<T> route = new ArrayList<>();
+        for (T node = targetNode; node != null; node = previous.get(node)) {
+            route.addFirst(node);
+        }
+        foundRoute(route, targetScore);
+        return new Pair<>(route, targetScore);
+    }
+}
@@ -2,4 +2,11 @@ package dev.aoc.common.graphsearch;
 
 public interface Scorer<T extends GraphNode> {
     long computeCost(T from, T to);
+
+    /** Cost of move from node to node extending a straight run through step, where cost of move from node to step is known.
+     * Default scores the whole move again, scorers of costs summed along the way override it to score only the move from step,
+     * so graphs enumerating runs of growing length do not score each run from its start. */
+    default long computeRunCost(T from, T step, long costToStep, T to) {
+        return computeCost(from, to);
+    }
 }
@@ -0,0 +1,214 @@
+package dev.aoc.common.graphsearch;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counters of single route finder search: expanded nodes, edges scanned, open set inserts and decrease-key operations, peak open set size,
+ * time spent iterating graph edges (excluding scorer) and in scorers. Disabled by default, enable with system property
+ * -Daoc.searchStatistics=true or setEnabled. When disabled, route finders get no statistics object and skip counting and timing entirely.
+ * Statistics of searches are collected from all threads, Day.run reports them with the part result. Parallel searches count
+ * in per-thread worker statistics (see ofWorker) merged when search ends, their time of edges and scorers is not measured.
+ */
+public class SearchStatistics {
+    private static volatile boolean enabled = Boolean.getBoolean("aoc.searchStatistics");
+    private static final Queue<SearchStatistics> collected = new ConcurrentLinkedQueue<>();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        SearchStatistics.enabled = enabled;
+    }
+
+    /** Creates statistics of new search, collected for report, or null if statistics are disabled */
+    public static SearchStatistics start(String searchName) {
+        if (!enabled) {
+            return null;
+        }
+        SearchStatistics statistics = new SearchStatistics(searchName);
+        collected.add(statistics);
+        return statistics;
+    }
+
+    /** Returns statistics of searches started (by any thread) since last call */
+    public static List<SearchStatistics> drainCollected() {
+        List<SearchStatistics> result = new ArrayList<>();
+        SearchStatistics statistics;
+        while ((statistics = collected.poll()) != null) {
+            result.add(statistics);
+        }
+        return result;
+    }
+
+    private final String searchName;
+    private long expandedNodes;
+    private long scannedEdges;
+    private long inserts;
+    private long decreaseKeys;
+    private long peakOpenSetSize;
+    private long edgesNanos;
+    private long scorerNanos;
+    private final Queue<SearchStatistics> workers = new ConcurrentLinkedQueue<>();
+    private volatile ThreadLocal<SearchStatistics> workerOfThread;
+
+    private SearchStatistics(String searchName) {
+        this.searchName = searchName;
+    }
+
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    public long getScannedEdges() {
+        return scannedEdges;
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    public long getPeakOpenSetSize() {
+        return peakOpenSetSize;
+    }
+
+    public void expanded() {
+        expandedNodes++;
+    }
+
+    public void scanned() {
+        scannedEdges++;
+    }
+
+    public void inserted(int openSetSize) {
+        inserts++;
+        openSetSize(openSetSize);
+    }
+
+    public void decreasedKey() {
+        decreaseKeys++;
+    }
+
+    public void openSetSize(int openSetSize) {
+        if (peakOpenSetSize < openSetSize) {
+            peakOpenSetSize = openSetSize;
+        }
+    }
+
+    /** Statistics of current thread working on parallel search, not collected on its own, merge with mergeWorkers after search.
+     * Lock-free once workers are set up, still resolve it once per task rather than per counted event. */
+    public SearchStatistics ofWorker() {
+        ThreadLocal<SearchStatistics> workerOfThread = this.workerOfThread;
+        if (workerOfThread == null) {
+            synchronized (this) {
+                workerOfThread = this.workerOfThread;
+                if (workerOfThread == null) {
+                    workerOfThread = ThreadLocal.withInitial(() -> {
+                        SearchStatistics worker = new SearchStatistics(searchName);
+                        workers.add(worker);
+                        return worker;
+                    });
+                    this.workerOfThread = workerOfThread;
+                }
+            }
+        }
+        return workerOfThread.get();
+    }
+
+    /** Adds counters of all workers to this statistics, peak open set is the largest of workers */
+    public synchronized void mergeWorkers() {
+        SearchStatistics worker;
+        while ((worker = workers.poll()) != null) {
+            expandedNodes += worker.expandedNodes;
+            scannedEdges += worker.scannedEdges;
+            inserts += worker.inserts;
+            decreaseKeys += worker.decreaseKeys;
+            peakOpenSetSize = Math.max(peakOpenSetSize, worker.peakOpenSetSize);
+        }
+        workerOfThread = null;
+    }
+
+    /** Wraps graph to measure time of edges iteration, excluding time of scorers and of edge consumer */
+    public <T extends GraphNode> Graph<T> timed(Graph<T> graph) {
+        return new Graph<>() {
+            @Override
+            public T getNode(long id) {
+                return graph.getNode(id);
+            }
+
+            @Override
+            public Set<T> getEdges(T node) {
+                long start = System.nanoTime(), scorerStart = scorerNanos;
+                Set<T> edges = graph.getEdges(node);
+                edgesNanos += (System.nanoTime() - start) - (scorerNanos - scorerStart);
+                return edges;
+            }
+
+            @Override
+            public void forEachEdge(T node, Scorer<T> scorer, EdgeConsumer<T> consumer) {
+                long[] mark = { System.nanoTime(), scorerNanos };
+                graph.forEachEdge(node, scorer, (nextNode, cost) -> {
+                    edgesNanos += (System.nanoTime() - mark[0]) - (scorerNanos - mark[1]);
+                    consumer.accept(nextNode, cost);
+                    mark[0] = System.nanoTime();
+                    mark[1] = scorerNanos;
+                });
+                edgesNanos += (System.nanoTime() - mark[0]) - (scorerNanos - mark[1]);
+            }
+        };
+    }
+
+    /** Scorer measuring time of wrapped scorer */
+    public record TimedScorer<T extends GraphNode>(Scorer<T> scorer, SearchStatistics statistics) implements Scorer<T> {
+        @Override
+        public long computeCost(T from, T to) {
+            long start = System.nanoTime();
+            long cost = scorer.computeCost(from, to);
+            statistics.scorerNanos += System.nanoTime() - start;
+            return cost;
+        }
+
+        @Override
+        public long computeRunCost(T from, T step, long costToStep, T to) {
+            long start = System.nanoTime();
+            long cost = scorer.computeRunCost(from, step, costToStep, to);
+            statistics.scorerNanos += System.nanoTime() - start;
+            return cost;
+        }
+    }
+
+    /** Wraps scorer to measure its time, null stays null */
+    public <T extends GraphNode> Scorer<T> timed(Scorer<T> scorer) {
+        return scorer != null ? new TimedScorer<>(scorer, this) : null;
+    }
+
+    /** Counters by name, in report order, for export */
+    public Map<String, Long> asMap() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("expandedNodes", expandedNodes);
+        result.put("scannedEdges", scannedEdges);
+        result.put("inserts", inserts);
+        result.put("decreaseKeys", decreaseKeys);
+        result.put("peakOpenSetSize", peakOpenSetSize);
+        result.put("edgesNanos", edgesNanos);
+        result.put("scorerNanos", scorerNanos);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "%s: expanded %d, edges %d, inserts %d, decrease-key %d, peak open set %d, edges time %s, scorer time %s".formatted(
+                searchName, expandedNodes, scannedEdges, inserts, decreaseKeys, peakOpenSetSize, Duration.ofNanos(edgesNanos), Duration.ofNanos(scorerNanos)
+        );
+    }
+}